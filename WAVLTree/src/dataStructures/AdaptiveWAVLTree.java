@@ -0,0 +1,238 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ *
+ * AdaptiveWAVLTree
+ *
+ * The WAVLTree API, for collections that are usually small. Up to
+ * PROMOTE_SIZE items are kept in a sorted int[] of keys and a parallel
+ * String[] of info, searched with binary search and changed with
+ * System.arraycopy - no WAVLNodes, and no OUTER_NODE sentinel.
+ * An insertion past PROMOTE_SIZE items moves them into a WAVLTree (in one
+ * sorted batch), and a deletion that leaves fewer than DEMOTE_SIZE items moves
+ * them back. The gap between the two sizes keeps a collection that grows and
+ * shrinks around one size from switching on every operation.
+ *
+ */
+public class AdaptiveWAVLTree {
+	public static final int PROMOTE_SIZE = 32;
+	public static final int DEMOTE_SIZE = 16;
+	private static final int INITIAL_CAPACITY = 4;
+	private int[] keys; // sorted, null until the first insertion or while a tree is used
+	private String[] values; // values[j] is the info of keys[j]
+	private int n; // the number of items in the arrays
+	private WAVLTree tree; // null while the arrays are used
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the collection is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no items
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of items.
+	 * @Complexity O(1)
+	 * @return the number of items
+	 */
+	public int size() {
+		return tree == null ? n : tree.size();
+	}
+
+	/**
+	 * public boolean isTree()
+	 *
+	 * @Complexity O(1)
+	 * @return true if the items are in a WAVLTree, false if they are in the arrays
+	 */
+	public boolean isTree() {
+		return tree != null;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * returns the info of an item with key k if it exists, otherwise null
+	 * @Complexity O(log n)
+	 * @param k int key to search for
+	 * @return value of key k, or null if it doesn't exists
+	 */
+	public String search(int k) {
+		if (tree != null) {
+			return tree.search(k);
+		}
+		int j = n == 0 ? -1 : Arrays.binarySearch(keys, 0, n, k);
+		return j >= 0 ? values[j] : null;
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * inserts an item with key k and info i. returns the number of rebalancing
+	 * operations (always 0 in the arrays), or -1 if an item with key k exists.
+	 * @Complexity O(log n) while a tree is used, O(PROMOTE_SIZE) in the arrays,
+	 * 				and O(PROMOTE_SIZE) for the switch to a tree.
+	 * @param k int key to insert
+	 * @param i String info of the key
+	 * @return the number of rebalance operations, or -1 if k is already there
+	 */
+	public int insert(int k, String i) {
+		if (tree != null) {
+			return tree.insert(k, i);
+		}
+		int j = n == 0 ? -1 : Arrays.binarySearch(keys, 0, n, k);
+		if (j >= 0) {
+			return -1;
+		}
+		j = -j - 1; // the insertion point
+		if (n == PROMOTE_SIZE) {
+			promote();
+			return tree.insert(k, i);
+		}
+		if (keys == null) {
+			keys = new int[INITIAL_CAPACITY];
+			values = new String[INITIAL_CAPACITY];
+		} else if (n == keys.length) {
+			keys = Arrays.copyOf(keys, Math.min(2 * n, PROMOTE_SIZE));
+			values = Arrays.copyOf(values, keys.length);
+		}
+		System.arraycopy(keys, j, keys, j + 1, n - j);
+		System.arraycopy(values, j, values, j + 1, n - j);
+		keys[j] = k;
+		values[j] = i;
+		n++;
+		return 0;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * deletes the item with key k, if it is there. returns the number of
+	 * rebalancing operations (always 0 in the arrays), or -1 if k isn't there.
+	 * @Complexity O(log n) while a tree is used, O(PROMOTE_SIZE) in the arrays,
+	 * 				and O(DEMOTE_SIZE) for the switch back to the arrays.
+	 * @param k int key to delete
+	 * @return the number of rebalance operations, or -1 if k isn't there
+	 */
+	public int delete(int k) {
+		if (tree != null) {
+			int steps = tree.delete(k);
+			if (tree.size() < DEMOTE_SIZE) {
+				demote();
+			}
+			return steps;
+		}
+		int j = n == 0 ? -1 : Arrays.binarySearch(keys, 0, n, k);
+		if (j < 0) {
+			return -1;
+		}
+		System.arraycopy(keys, j + 1, keys, j, n - j - 1);
+		System.arraycopy(values, j + 1, values, j, n - j - 1);
+		n--;
+		values[n] = null;
+		return 0;
+	}
+
+	/**
+	 * Moves the items from the arrays into a new WAVLTree.
+	 * @Complexity O(n), insertAll builds a balanced tree from the sorted arrays
+	 */
+	private void promote() {
+		tree = new WAVLTree();
+		tree.insertAll(Arrays.copyOf(keys, n), values);
+		keys = null;
+		values = null;
+		n = 0;
+	}
+
+	/**
+	 * Moves the items from the tree back into arrays.
+	 * @Complexity O(n)
+	 */
+	private void demote() {
+		n = tree.size();
+		keys = Arrays.copyOf(tree.keysToArray(), Math.max(n, INITIAL_CAPACITY));
+		values = Arrays.copyOf(tree.infoToArray(), keys.length);
+		tree = null;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key, or null if empty.
+	 * @Complexity O(1) in the arrays, O(log n) in a tree
+	 * @return the info of the smallest key
+	 */
+	public String min() {
+		if (tree != null) {
+			return tree.min();
+		}
+		return n == 0 ? null : values[0];
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key, or null if empty.
+	 * @Complexity O(1) in the arrays, O(log n) in a tree
+	 * @return the info of the largest key
+	 */
+	public String max() {
+		if (tree != null) {
+			return tree.max();
+		}
+		return n == 0 ? null : values[n - 1];
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array of the keys, or an empty array if empty.
+	 * @Complexity O(n)
+	 * @return int[] the keys in ascending order
+	 */
+	public int[] keysToArray() {
+		if (tree != null) {
+			return tree.keysToArray();
+		}
+		return n == 0 ? new int[0] : Arrays.copyOf(keys, n);
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns the info of the items, sorted by their keys.
+	 * @Complexity O(n)
+	 * @return String[] the info in the order of the keys
+	 */
+	public String[] infoToArray() {
+		if (tree != null) {
+			return tree.infoToArray();
+		}
+		return n == 0 ? new String[0] : Arrays.copyOf(values, n);
+	}
+
+	/**
+	 * public String select(int i)
+	 *
+	 * Returns the info of the i'th smallest key (1-based), or null if i is out
+	 * of range.
+	 * @Complexity O(1) in the arrays, O(log n) in a tree
+	 * @param i int index to search for
+	 * @return the info of the i'th smallest key
+	 */
+	public String select(int i) {
+		if (tree != null) {
+			return i >= 1 ? tree.select(i) : null;
+		}
+		return i >= 1 && i <= n ? values[i - 1] : null;
+	}
+}
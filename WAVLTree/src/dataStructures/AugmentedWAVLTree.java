@@ -0,0 +1,140 @@
+package dataStructures;
+
+/**
+ *
+ * AugmentedWAVLTree
+ *
+ * A WAVLTree whose nodes also keep the summary of their subtree, by a Monoid
+ * (a sum, a minimum, or any associative combine). The summary is kept where
+ * the subtree size is: updateSubtreeSize recomputes both, so it is fixed by
+ * insert, delete, the rotations and the joins of the batch operations, in the
+ * same places and at the same cost as the sizes.
+ * aggregate(lo, hi) then combines O(log n) subtree summaries, instead of
+ * scanning the items in the range.
+ *
+ * Only DeleteMode.REBALANCE is used, since tombstones would stay in the
+ * summaries.
+ *
+ * @param <A> the type of the summaries
+ */
+public class AugmentedWAVLTree<A> extends WAVLTree {
+	private final Monoid<A> monoid;
+
+	/**
+	 * Constructs an empty tree.
+	 * @param monoid Monoid<A> how to summarize the items
+	 */
+	public AugmentedWAVLTree(Monoid<A> monoid) {
+		super(true, DeleteMode.REBALANCE, null);
+		this.monoid = monoid;
+	}
+
+	/**
+	 * A node with the summary of its subtree.
+	 */
+	private class AugmentedNode extends WAVLNode {
+		private A summary;
+
+		/**
+		 * @param k int key of the node
+		 * @param i String info of the node
+		 */
+		AugmentedNode(int k, String i) {
+			super(k, i, null, OUTER_NODE, OUTER_NODE);
+			this.summary = monoid.lift(k, i);
+		}
+
+		@Override
+		public void updateSubtreeSize() {
+			super.updateSubtreeSize();
+			summary = monoid.combine(monoid.combine(summaryOf(getLeft()), monoid.lift(getKey(), getValue())),
+					summaryOf(getRight()));
+		}
+
+		@Override
+		protected boolean contributesLike(WAVLNode other) {
+			return false; // two items rarely have the same summary
+		}
+
+		/**
+		 * Also fixes the summaries above the node, if it is in the tree, so put,
+		 * merge and computeIfPresent keep them current.
+		 * @Complexity O(log n)
+		 */
+		@Override
+		public void setValue(String value) {
+			super.setValue(value);
+			if (getParent() != null || this == getRoot()) {
+				updateSizeUp(this);
+			} else {
+				updateSubtreeSize();
+			}
+		}
+	}
+
+	@Override
+	protected WAVLNode newNode(int k, String i) {
+		return new AugmentedNode(k, i);
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param x WAVLNode a node of the tree, or OUTER_NODE
+	 * @return the summary of the subtree of x
+	 */
+	@SuppressWarnings("unchecked")
+	private A summaryOf(WAVLNode x) {
+		return x.isInnerNode() ? ((AugmentedNode) x).summary : monoid.identity();
+	}
+
+	/**
+	 * public A aggregate()
+	 *
+	 * @Complexity O(1)
+	 * @return the summary of all the items, or the identity if the tree is empty
+	 */
+	public A aggregate() {
+		return empty() ? monoid.identity() : summaryOf(getRoot());
+	}
+
+	/**
+	 * public A aggregate(int lo, int hi)
+	 *
+	 * Returns the summary of the items with lo <= key <= hi, in key order.
+	 * The search goes down to the first node in the range (the split node).
+	 * From there, the path to lo adds the right subtrees it passes (with
+	 * their parents), and the path to hi adds the left subtrees it passes.
+	 * @Complexity O(log n)
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return the summary of the range, or the identity if it has no items
+	 */
+	public A aggregate(int lo, int hi) {
+		WAVLNode x = top();
+		while (x.isInnerNode() && (x.getKey() < lo || x.getKey() > hi)) {
+			x = x.getKey() < lo ? x.getRight() : x.getLeft();
+		}
+		if (!x.isInnerNode()) {
+			return monoid.identity();
+		}
+		A left = monoid.identity(); // the keys >= lo in x's left subtree
+		for (WAVLNode y = x.getLeft(); y.isInnerNode(); ) {
+			if (y.getKey() >= lo) {
+				left = monoid.combine(monoid.combine(monoid.lift(y.getKey(), y.getValue()), summaryOf(y.getRight())), left);
+				y = y.getLeft();
+			} else {
+				y = y.getRight();
+			}
+		}
+		A right = monoid.identity(); // the keys <= hi in x's right subtree
+		for (WAVLNode y = x.getRight(); y.isInnerNode(); ) {
+			if (y.getKey() <= hi) {
+				right = monoid.combine(right, monoid.combine(summaryOf(y.getLeft()), monoid.lift(y.getKey(), y.getValue())));
+				y = y.getRight();
+			} else {
+				y = y.getLeft();
+			}
+		}
+		return monoid.combine(monoid.combine(left, monoid.lift(x.getKey(), x.getValue())), right);
+	}
+}
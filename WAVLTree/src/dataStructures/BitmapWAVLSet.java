@@ -0,0 +1,321 @@
+package dataStructures;
+
+/**
+ *
+ * BitmapWAVLSet
+ *
+ * A set of int keys for dense key ranges. Every node of the WAVL tree is a
+ * bucket of BUCKET_SIZE consecutive keys, kept as a bitmap of longs, so a
+ * dense set costs a bit per key (plus a node per bucket) instead of a node
+ * per key. The tree is searched by bucket number (the key shifted right by
+ * BUCKET_BITS, which rounds negative keys down as well), and is rebalanced
+ * only when a bucket gets its first key or loses its last one.
+ *
+ * Subtree sizes count the keys of the buckets (through selfSize), so rank and
+ * select go down the tree by the sizes and finish in the bucket with
+ * popcounts. Range counts and scans work a word (64 keys) at a time.
+ *
+ */
+public class BitmapWAVLSet {
+	public static final int BUCKET_BITS = 9;
+	public static final int BUCKET_SIZE = 1 << BUCKET_BITS; // keys per bucket
+	private static final int WORDS = BUCKET_SIZE / 64;
+	private final Index index = new Index();
+
+	/**
+	 * The WAVL tree of the buckets. Its keys are bucket numbers, not set keys,
+	 * so it isn't exposed.
+	 */
+	private static class Index extends WAVLTree {
+
+		/**
+		 * Finds the bucket with the given number.
+		 * @Complexity O(log(n / BUCKET_SIZE)) for a dense set
+		 * @param b int bucket number
+		 * @return the bucket, or null if it has no keys
+		 */
+		Bucket bucketOf(int b) {
+			WAVLNode x = treeSearch(top(), b);
+			return x.isInnerNode() ? (Bucket) x : null;
+		}
+	}
+
+	/**
+	 * A node that holds the keys b * BUCKET_SIZE .. (b + 1) * BUCKET_SIZE - 1
+	 * as bits, for bucket number b.
+	 */
+	private static class Bucket extends WAVLTree.WAVLNode {
+		private final long[] words = new long[WORDS];
+		private int n; // the number of keys in the bucket
+
+		/**
+		 * @param b int the bucket number, the node's key in the tree
+		 */
+		Bucket(int b) {
+			super(b, null, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+		}
+
+		@Override
+		protected int selfSize() {
+			return n;
+		}
+
+		/**
+		 * The number of keys in the bucket below offset.
+		 * @Complexity O(WORDS), a popcount per word
+		 * @param offset int position in the bucket, 0 to BUCKET_SIZE
+		 * @return the number of set bits below offset
+		 */
+		int countBelow(int offset) {
+			int count = 0;
+			int w = offset >>> 6;
+			for (int j = 0; j < w; j++) {
+				count += Long.bitCount(words[j]);
+			}
+			if (w < WORDS) {
+				count += Long.bitCount(words[w] & ((1L << (offset & 63)) - 1));
+			}
+			return count;
+		}
+
+		/**
+		 * The offset of the i'th set bit (0-based).
+		 * @Complexity O(WORDS + 64)
+		 * @param i int, less than n
+		 * @return the offset of the bit in the bucket
+		 */
+		int selectBit(int i) {
+			int w = 0;
+			while (Long.bitCount(words[w]) <= i) {
+				i -= Long.bitCount(words[w]);
+				w++;
+			}
+			long word = words[w];
+			for (; i > 0; i--) {
+				word &= word - 1; // clear the lowest set bit
+			}
+			return (w << 6) + Long.numberOfTrailingZeros(word);
+		}
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the set is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no keys
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of keys in the set.
+	 * @Complexity O(1), the root's size counts the keys of all buckets
+	 * @return the number of keys
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public boolean contains(int k)
+	 *
+	 * @Complexity O(log(number of buckets))
+	 * @param k int key to look for
+	 * @return true if k is in the set
+	 */
+	public boolean contains(int k) {
+		Bucket bucket = index.bucketOf(k >> BUCKET_BITS);
+		return bucket != null && (bucket.words[(k & (BUCKET_SIZE - 1)) >>> 6] & (1L << k)) != 0;
+	}
+
+	/**
+	 * public boolean add(int k)
+	 *
+	 * Adds k to the set. A bucket is added to the tree for the first key in it.
+	 * @Complexity O(log(number of buckets)), rebalancing only for a new bucket
+	 * @param k int key to add
+	 * @return true if k was added, false if it was already in the set
+	 */
+	public boolean add(int k) {
+		Bucket bucket = index.bucketOf(k >> BUCKET_BITS);
+		if (bucket == null) {
+			bucket = new Bucket(k >> BUCKET_BITS);
+			index.insertNode(bucket);
+		}
+		int w = (k & (BUCKET_SIZE - 1)) >>> 6;
+		if ((bucket.words[w] & (1L << k)) != 0) {
+			return false;
+		}
+		bucket.words[w] |= 1L << k; // shifts use the low 6 bits of k
+		bucket.n++;
+		index.updateSizeUp(bucket);
+		return true;
+	}
+
+	/**
+	 * public boolean remove(int k)
+	 *
+	 * Removes k from the set. A bucket that loses its last key is removed from
+	 * the tree.
+	 * @Complexity O(log(number of buckets)), rebalancing only when a bucket is removed
+	 * @param k int key to remove
+	 * @return true if k was removed, false if it wasn't in the set
+	 */
+	public boolean remove(int k) {
+		Bucket bucket = index.bucketOf(k >> BUCKET_BITS);
+		int w = (k & (BUCKET_SIZE - 1)) >>> 6;
+		if (bucket == null || (bucket.words[w] & (1L << k)) == 0) {
+			return false;
+		}
+		bucket.words[w] &= ~(1L << k);
+		bucket.n--;
+		index.updateSizeUp(bucket);
+		if (bucket.n == 0) {
+			index.delete(bucket.getKey());
+		}
+		return true;
+	}
+
+	/**
+	 * public int rank(int k)
+	 *
+	 * Returns the number of keys in the set smaller than k.
+	 * @Complexity O(log(number of buckets) + WORDS)
+	 * @param k int any key
+	 * @return the number of keys smaller than k
+	 */
+	public int rank(int k) {
+		int b = k >> BUCKET_BITS;
+		int count = 0;
+		WAVLTree.WAVLNode x = index.top();
+		while (x.isInnerNode()) {
+			if (b < x.getKey()) {
+				x = x.getLeft();
+			} else if (b > x.getKey()) {
+				count += x.getLeft().getSubtreeSize() + ((Bucket) x).n;
+				x = x.getRight();
+			} else {
+				return count + x.getLeft().getSubtreeSize() + ((Bucket) x).countBelow(k & (BUCKET_SIZE - 1));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * public int select(int i)
+	 *
+	 * Returns the i'th smallest key (1-based).
+	 * @Complexity O(log(number of buckets) + WORDS + 64)
+	 * @param i int index to search for, 1 to size()
+	 * @return the i'th smallest key
+	 * @throws IllegalArgumentException if i is out of range
+	 */
+	public int select(int i) {
+		if (i < 1 || i > size()) {
+			throw new IllegalArgumentException("no " + i + "'th key in a set of " + size());
+		}
+		int rest = i - 1;
+		WAVLTree.WAVLNode x = index.getRoot();
+		while (true) {
+			int left = x.getLeft().getSubtreeSize();
+			int self = ((Bucket) x).n;
+			if (rest < left) {
+				x = x.getLeft();
+			} else if (rest < left + self) {
+				return (x.getKey() << BUCKET_BITS) + ((Bucket) x).selectBit(rest - left);
+			} else {
+				rest -= left + self;
+				x = x.getRight();
+			}
+		}
+	}
+
+	/**
+	 * public int countInRange(int lo, int hi)
+	 *
+	 * Returns the number of keys k with lo <= k <= hi.
+	 * @Complexity O(log(number of buckets) + WORDS)
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return the number of keys in the range
+	 */
+	public int countInRange(int lo, int hi) {
+		if (lo > hi) {
+			return 0;
+		}
+		int upTo = hi == Integer.MAX_VALUE ? size() : rank(hi + 1);
+		return upTo - rank(lo);
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array of the keys.
+	 * @Complexity O(n + number of buckets * WORDS)
+	 * @return int[] the keys in ascending order
+	 */
+	public int[] keysToArray() {
+		return keysInRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * public int[] keysInRange(int lo, int hi)
+	 *
+	 * Returns a sorted array of the keys k with lo <= k <= hi. Only the buckets
+	 * in the range are visited, and their words are masked to the range and
+	 * read a set bit at a time.
+	 * @Complexity O(log(number of buckets) + m + visited buckets * WORDS) for m
+	 * 				keys in the range
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return int[] the keys in the range, in ascending order
+	 */
+	public int[] keysInRange(int lo, int hi) {
+		int[] out = new int[countInRange(lo, hi)];
+		if (out.length > 0) {
+			collect(index.top(), lo, hi, out, 0);
+		}
+		return out;
+	}
+
+	/**
+	 * Copies the keys in [lo, hi] from the subtree of x into out, in order.
+	 * @Complexity O(visited buckets * WORDS + keys copied)
+	 * @return the number of keys in out
+	 */
+	private int collect(WAVLTree.WAVLNode x, int lo, int hi, int[] out, int m) {
+		if (!x.isInnerNode()) {
+			return m;
+		}
+		int b = x.getKey();
+		if ((lo >> BUCKET_BITS) < b) {
+			m = collect(x.getLeft(), lo, hi, out, m);
+		}
+		if ((lo >> BUCKET_BITS) <= b && b <= (hi >> BUCKET_BITS)) {
+			Bucket bucket = (Bucket) x;
+			long base = (long) b << BUCKET_BITS;
+			for (int w = 0; w < WORDS; w++) {
+				long first = base + (w << 6); // the key of bit 0 of the word
+				long word = bucket.words[w];
+				if (first < lo) {
+					word &= lo - first >= 64 ? 0 : -1L << (lo - first);
+				}
+				if (first + 63 > hi) {
+					word &= hi - first < 0 ? 0 : -1L >>> (63 - (hi - first));
+				}
+				while (word != 0) {
+					out[m++] = (int) (first + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+		if (b < (hi >> BUCKET_BITS)) {
+			m = collect(x.getRight(), lo, hi, out, m);
+		}
+		return m;
+	}
+}
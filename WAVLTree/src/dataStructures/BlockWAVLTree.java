@@ -0,0 +1,444 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ *
+ * BlockWAVLTree
+ *
+ * A sorted map of distinct int keys to String info, where every node of the
+ * WAVL tree holds a block of up to blockSize sorted keys instead of one key.
+ * The tree is searched by the blocks' separators (a separator is at most the
+ * block's smallest key, and larger than every key of the blocks before it),
+ * and is rebalanced only when a full block splits or two blocks merge. A
+ * block that drops below blockSize/4 keys is merged with a neighbour, or takes
+ * keys from it, so once there are two blocks, every block holds at least
+ * blockSize/4 keys. The first block's separator is Integer.MIN_VALUE, so every
+ * key has a block, and that block stays even when it is empty.
+ *
+ * Inside a block, the position of a key is the number of keys smaller than
+ * it, counted over the whole block with no early exit.
+ * Subtree sizes count the keys of the blocks (through selfSize), so size and
+ * select work with per-block counts.
+ *
+ */
+public class BlockWAVLTree {
+	public static final int MIN_BLOCK_SIZE = 16;
+	public static final int MAX_BLOCK_SIZE = 64;
+	private final int blockSize;
+	private final Index index;
+
+	/**
+	 * Constructs an empty tree with blocks of MAX_BLOCK_SIZE keys.
+	 */
+	public BlockWAVLTree() {
+		this(MAX_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructs an empty tree.
+	 * @param blockSize int the number of keys in a full block, an even number
+	 * 			between MIN_BLOCK_SIZE and MAX_BLOCK_SIZE
+	 */
+	public BlockWAVLTree(int blockSize) {
+		if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE || blockSize % 2 != 0) {
+			throw new IllegalArgumentException("blockSize must be even, between "
+					+ MIN_BLOCK_SIZE + " and " + MAX_BLOCK_SIZE);
+		}
+		this.blockSize = blockSize;
+		this.index = new Index();
+		index.insertNode(index.new Block(Integer.MIN_VALUE));
+	}
+
+	/**
+	 * The WAVL tree of the blocks. It isn't exposed, since its own operations
+	 * work on the separators and not on the keys.
+	 */
+	private class Index extends WAVLTree {
+
+		/**
+		 * A node that holds a block of sorted keys and their info.
+		 */
+		private class Block extends WAVLNode {
+			private final int[] keys = new int[blockSize];
+			private final String[] values = new String[blockSize];
+			private int n; // the number of keys in the block
+
+			/**
+			 * @param separator int the node's key in the tree
+			 */
+			Block(int separator) {
+				super(separator, null, null, OUTER_NODE, OUTER_NODE);
+			}
+
+			@Override
+			protected int selfSize() {
+				return n;
+			}
+
+			/**
+			 * The number of keys in the block smaller than k, which is where k
+			 * is or would be. The loop has no early exit.
+			 * @Complexity O(blockSize)
+			 * @param k int key to look for
+			 * @return the position of k in the block
+			 */
+			int position(int k) {
+				int smaller = 0;
+				for (int j = 0; j < n; j++) {
+					smaller += keys[j] < k ? 1 : 0;
+				}
+				return smaller;
+			}
+		}
+
+		/**
+		 * Finds the block of k: the block with the largest separator <= k.
+		 * @Complexity O(log(n / blockSize))
+		 * @param k int key to look for
+		 * @return the block that holds k, or would hold it
+		 */
+		Block blockOf(int k) {
+			WAVLNode x = getRoot();
+			WAVLNode block = null;
+			while (x.isInnerNode()) {
+				if (x.getKey() <= k) {
+					block = x;
+					x = x.getRight();
+				} else {
+					x = x.getLeft();
+				}
+			}
+			return (Block) block; // the first block's separator is <= any key
+		}
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the tree is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no keys
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of keys in the tree.
+	 * @Complexity O(1), the root's size counts the keys of all blocks
+	 * @return the number of keys
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public int blocks()
+	 *
+	 * Returns the number of blocks, counting the first block even when empty.
+	 * @Complexity O(n / blockSize)
+	 * @return the number of nodes in the WAVL tree of the blocks
+	 */
+	public int blocks() {
+		int count = 0;
+		for (WAVLTree.WAVLNode x = index.blockOf(Integer.MIN_VALUE); x != null; x = index.successorNode(x)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * returns the info of an item with key k if it exists in the tree otherwise,
+	 * returns null
+	 * @Complexity O(log(n / blockSize) + blockSize)
+	 * @param k int key to search for
+	 * @return value of key k, or null if it doesn't exists
+	 */
+	public String search(int k) {
+		Index.Block block = index.blockOf(k);
+		int j = block.position(k);
+		if (j < block.n && block.keys[j] == k) {
+			return block.values[j];
+		}
+		return null;
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * inserts an item with key k and info i. A full block is split into two
+	 * halves first, and the upper half becomes a new node in the WAVL tree,
+	 * with its smallest key as the separator.
+	 * @Complexity O(log(n / blockSize) + blockSize), rebalancing only on splits
+	 * @param k int key to insert
+	 * @param i String info of the key
+	 * @return the number of rebalance operations, or -1 if k is already in the tree
+	 */
+	public int insert(int k, String i) {
+		Index.Block block = index.blockOf(k);
+		int j = block.position(k);
+		if (j < block.n && block.keys[j] == k) {
+			return -1;
+		}
+		int steps = 0;
+		if (block.n == blockSize) {
+			int half = blockSize / 2;
+			Index.Block upper = index.new Block(block.keys[half]);
+			System.arraycopy(block.keys, half, upper.keys, 0, half);
+			System.arraycopy(block.values, half, upper.values, 0, half);
+			Arrays.fill(block.values, half, blockSize, null);
+			upper.n = half;
+			block.n = half;
+			upper.updateSubtreeSize();
+			index.updateSizeUp(block);
+			steps = index.insertNode(upper);
+			if (j > half) {
+				block = upper;
+				j -= half;
+			}
+		}
+		System.arraycopy(block.keys, j, block.keys, j + 1, block.n - j);
+		System.arraycopy(block.values, j, block.values, j + 1, block.n - j);
+		block.keys[j] = k;
+		block.values[j] = i;
+		block.n++;
+		index.updateSizeUp(block);
+		return steps;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * deletes the item with key k, if it is there. A block left with fewer
+	 * than blockSize/4 keys is refilled from a neighbour (see refill).
+	 * @Complexity O(log(n / blockSize) + blockSize), rebalancing only when
+	 * 				blocks merge
+	 * @param k int key to delete
+	 * @return the number of rebalance operations, or -1 if k isn't in the tree
+	 */
+	public int delete(int k) {
+		Index.Block block = index.blockOf(k);
+		int j = block.position(k);
+		if (j == block.n || block.keys[j] != k) {
+			return -1;
+		}
+		System.arraycopy(block.keys, j + 1, block.keys, j, block.n - j - 1);
+		System.arraycopy(block.values, j + 1, block.values, j, block.n - j - 1);
+		block.n--;
+		block.values[block.n] = null;
+		index.updateSizeUp(block);
+		if (block.n < blockSize / 4) {
+			return refill(block);
+		}
+		return 0;
+	}
+
+	/**
+	 * Refills a block that has too few keys, together with the block after it
+	 * (or before it, for the last block).
+	 * @Complexity O(log(n / blockSize) + blockSize)
+	 * @param block Index.Block with fewer than blockSize/4 keys
+	 * @return the number of rebalance operations
+	 */
+	private int refill(Index.Block block) {
+		WAVLTree.WAVLNode next = index.successorNode(block);
+		if (next != null) {
+			return balance(block, (Index.Block) next);
+		}
+		WAVLTree.WAVLNode previous = index.predecessorNode(block);
+		if (previous != null) {
+			return balance((Index.Block) previous, block);
+		}
+		return 0; // the only block
+	}
+
+	/**
+	 * Evens out two adjacent blocks. If their keys fit in 3/4 of a block,
+	 * right is merged into left and removed from the WAVL tree, so the merged
+	 * block isn't split again by the next insertion. Otherwise, keys move
+	 * across so each block holds half, and right's separator becomes its new
+	 * smallest key, which is still above every key of left.
+	 * Either way each block keeps at least blockSize/4 keys, since one of the
+	 * two had at least that many.
+	 * @Complexity O(log(n / blockSize) + blockSize)
+	 * @param left Index.Block a block
+	 * @param right Index.Block the block after it
+	 * @return the number of rebalance operations
+	 */
+	private int balance(Index.Block left, Index.Block right) {
+		int total = left.n + right.n;
+		if (total <= blockSize - blockSize / 4) {
+			System.arraycopy(right.keys, 0, left.keys, left.n, right.n);
+			System.arraycopy(right.values, 0, left.values, left.n, right.n);
+			left.n = total;
+			right.n = 0;
+			index.updateSizeUp(right);
+			index.updateSizeUp(left);
+			return index.delete(right.getKey());
+		}
+		int half = total / 2;
+		if (left.n < half) { // the first keys of right move to the end of left
+			int moved = half - left.n;
+			System.arraycopy(right.keys, 0, left.keys, left.n, moved);
+			System.arraycopy(right.values, 0, left.values, left.n, moved);
+			System.arraycopy(right.keys, moved, right.keys, 0, right.n - moved);
+			System.arraycopy(right.values, moved, right.values, 0, right.n - moved);
+			Arrays.fill(right.values, right.n - moved, right.n, null);
+			right.n -= moved;
+		} else { // the last keys of left move to the start of right
+			int moved = left.n - half;
+			System.arraycopy(right.keys, 0, right.keys, moved, right.n);
+			System.arraycopy(right.values, 0, right.values, moved, right.n);
+			System.arraycopy(left.keys, half, right.keys, 0, moved);
+			System.arraycopy(left.values, half, right.values, 0, moved);
+			Arrays.fill(left.values, half, left.n, null);
+			right.n += moved;
+		}
+		left.n = half;
+		right.setKey(right.keys[0]);
+		index.updateSizeUp(left);
+		index.updateSizeUp(right);
+		return 0;
+	}
+
+	/**
+	 * public String select(int i)
+	 *
+	 * Returns the info of the i'th smallest key (1-based), or null if i is out
+	 * of range. The blocks' sizes lead to the block, and the rest is an index
+	 * into it.
+	 * @Complexity O(log(n / blockSize))
+	 * @param i int index to search for
+	 * @return the info of the i'th smallest key
+	 */
+	public String select(int i) {
+		if (i < 1 || i > size()) {
+			return null;
+		}
+		int rest = i - 1;
+		WAVLTree.WAVLNode x = index.getRoot();
+		while (true) {
+			int left = x.getLeft().getSubtreeSize();
+			int self = ((Index.Block) x).n;
+			if (rest < left) {
+				x = x.getLeft();
+			} else if (rest < left + self) {
+				return ((Index.Block) x).values[rest - left];
+			} else {
+				rest -= left + self;
+				x = x.getRight();
+			}
+		}
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key, or null if empty.
+	 * @Complexity O(log(n / blockSize))
+	 * @return the info of the smallest key
+	 */
+	public String min() {
+		return select(1);
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key, or null if empty.
+	 * @Complexity O(log(n / blockSize))
+	 * @return the info of the largest key
+	 */
+	public String max() {
+		return select(size());
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array of the keys, block by block.
+	 * @Complexity O(n)
+	 * @return int[] the keys in ascending order
+	 */
+	public int[] keysToArray() {
+		return keysInRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * public int[] keysInRange(int lo, int hi)
+	 *
+	 * Returns a sorted array of the keys k with lo <= k <= hi. Only the blocks
+	 * that may hold such keys are visited, and they are copied a block at a time.
+	 * @Complexity O(log(n / blockSize) + blockSize + m) for m keys in the range
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return int[] the keys in the range, in ascending order
+	 */
+	public int[] keysInRange(int lo, int hi) {
+		if (lo > hi) {
+			return new int[0];
+		}
+		int upTo = hi == Integer.MAX_VALUE ? size() : countBelow(hi + 1);
+		int[] out = new int[upTo - countBelow(lo)];
+		collect(index.getRoot(), lo, hi, out, 0);
+		return out;
+	}
+
+	/**
+	 * Counts the keys smaller than k. Going right past a block counts it and
+	 * the blocks on its left whole, by their sizes. The last block passed is
+	 * the one k is in, or would be in, and its keys from k's position on are
+	 * taken back out.
+	 * @Complexity O(log(n / blockSize) + blockSize)
+	 * @param k int any key
+	 * @return the number of keys smaller than k
+	 */
+	private int countBelow(int k) {
+		int below = 0;
+		Index.Block last = null;
+		WAVLTree.WAVLNode x = index.getRoot();
+		while (x.isInnerNode()) {
+			if (x.getKey() < k) {
+				last = (Index.Block) x;
+				below += x.getLeft().getSubtreeSize() + last.n;
+				x = x.getRight();
+			} else {
+				x = x.getLeft();
+			}
+		}
+		return last == null ? 0 : below - (last.n - last.position(k));
+	}
+
+	/**
+	 * Copies the keys in [lo, hi] from the subtree of x into out, in order.
+	 * The left subtree has keys smaller than x's separator, and x's block and
+	 * the right subtree have keys at least as large.
+	 * @Complexity O(visited blocks * blockSize)
+	 * @return the number of keys in out
+	 */
+	private int collect(WAVLTree.WAVLNode x, int lo, int hi, int[] out, int m) {
+		if (!x.isInnerNode()) {
+			return m;
+		}
+		if (lo < x.getKey()) {
+			m = collect(x.getLeft(), lo, hi, out, m);
+		}
+		if (hi < x.getKey()) {
+			return m;
+		}
+		Index.Block block = (Index.Block) x;
+		int from = block.position(lo);
+		int to = block.position(hi);
+		if (to < block.n && block.keys[to] == hi) {
+			to++;
+		}
+		System.arraycopy(block.keys, from, out, m, to - from);
+		m += to - from;
+		return collect(x.getRight(), lo, hi, out, m);
+	}
+}
@@ -1,6 +1,7 @@
 package dataStructures;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.function.BinaryOperator;
 
 @SuppressWarnings({"Convert2Lambda", "Anonymous2MethodRef", "RedundantTypeArguments"})
 public class ExTester
@@ -105,6 +106,758 @@ public class ExTester
         return 1 + Math.max(height(node.getLeft()), height(node.getRight()));
     }
     
+    //case 39: long keys past the int range, and pairs of ints as keys
+    private boolean caseLongKeys() {
+        int n = 0;
+        LongWAVLTree tree = new LongWAVLTree();
+        for (int value : values4) {
+            tree.insert(value * 10000000000L, "" + value); // 1e10 ... 1e11
+        }
+        if (tree.insert(30000000000L, "again") != -1 || !tree.search(30000000000L).equals("3") ||
+                tree.search(3) != null || tree.rank(30000000000L) != 2 || !tree.select(10).equals("10")) {
+            n++;
+        }
+        if (tree.delete(50000000000L) < 0 || tree.delete(50000000000L) != -1 || tree.size() != 9 ||
+                tree.keysToArray()[4] != 60000000000L) {
+            n++;
+        }
+        PairWAVLTree pairs = new PairWAVLTree();
+        for (int value : values4) {
+            pairs.insert(value % 3, -value, "" + value); // ordered by value % 3, then by -value
+        }
+        if (!pairs.select(1).equals("9") || !pairs.select(4).equals("10") || pairs.countWithFirst(1) != 4 ||
+                pairs.rank(2, Integer.MIN_VALUE) != 7 || !pairs.search(2, -5).equals("5") ||
+                pairs.secondToArray()[9] != -2 || pairs.firstToArray()[9] != 2) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 38: multiset, counts, rank and select with repeated keys
+    private boolean caseMultiset() {
+        int n = 0;
+        WAVLMultiset multiset = new WAVLMultiset();
+        for (int value : values4) {
+            multiset.add(value, value); // 1 once, 2 twice ... 10 ten times
+        }
+        if (multiset.add(3) != 3 || multiset.count(3) != 4 || multiset.size() != 56 || multiset.distinct() != 10) {
+            n++;
+        }
+        if (multiset.rank(3) != 3 || multiset.rank(4) != 7 || multiset.select(3) != 2 || multiset.select(4) != 3 ||
+                multiset.select(56) != 10 || multiset.countInRange(2, 3) != 6) {
+            n++;
+        }
+        if (multiset.remove(2, 5) != 2 || multiset.count(2) != 0 || multiset.remove(2) != 0 ||
+                multiset.distinct() != 9 || multiset.select(2) != 3 || multiset.size() != 54) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 37: put, putIfAbsent, computeIfPresent and merge
+    private boolean caseUpserts() {
+        int n = 0;
+        WAVLTree tree = new WAVLTree();
+        for (int value : values4) {
+            tree.insert(value, "" + value); // 1 ... 10
+        }
+        if (!tree.put(3, "three").equals("3") || tree.put(11, "11") != null || !tree.search(3).equals("three") ||
+                !tree.putIfAbsent(11, "eleven").equals("11") || tree.putIfAbsent(12, "12") != null) {
+            n++;
+        }
+        if (!tree.computeIfPresent(4, new Remapper() {
+            public String apply(int key, String info) {
+                return info + key;
+            }
+        }).equals("44") || tree.computeIfPresent(20, new Remapper() {
+            public String apply(int key, String info) {
+                return info;
+            }
+        }) != null) {
+            n++;
+        }
+        BinaryOperator<String> concat = new BinaryOperator<String>() {
+            public String apply(String old, String given) {
+                return old.equals("5") ? null : old + given;
+            }
+        };
+        if (!tree.merge(6, "!", concat).equals("6!") || !tree.merge(13, "!", concat).equals("!") ||
+                tree.merge(5, "!", concat) != null || tree.search(5) != null || tree.size() != 12) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 36: double-ended priority queue, peek and poll at both ends
+    private boolean caseQueue() {
+        int n = 0;
+        WAVLTree tree = new WAVLTree();
+        if (tree.peekFirst() != null || tree.pollLast() != null) {
+            n++;
+        }
+        for (int value : values) {
+            tree.insert(value, "" + value); // 800 ... 1799
+        }
+        tree.insert(5, "five");
+        if (tree.peekFirst().getKey() != 5 || tree.peekLast().getKey() != 1799) {
+            n++;
+        }
+        WAVLTree.WAVLNode first = tree.pollFirst();
+        if (first.getKey() != 5 || !first.getValue().equals("five") || tree.peekFirst().getKey() != 800) {
+            n++;
+        }
+        for (int key = 1799; key >= 1300; key--) {
+            if (tree.pollLast().getKey() != key) {
+                n++;
+            }
+        }
+        tree.delete(800);
+        if (tree.size() != 499 || tree.pollFirst().getKey() != 801 || tree.peekLast().getKey() != 1299) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 35: range scan with early exit, and range delete
+    private boolean caseRanges() {
+        int n = 0;
+        WAVLTree tree = new WAVLTree();
+        for (int value : values) {
+            tree.insert(value, "" + value); // 800 ... 1799
+        }
+        final int[] sum = new int[1];
+        int visited = tree.forEachInRange(1000, 1999, new RangeVisitor() {
+            public boolean visit(int key, String info) {
+                sum[0] += key;
+                return key < 1004; // stop after 1004
+            }
+        });
+        if (visited != 5 || sum[0] != 5010) {
+            n++;
+        }
+        if (tree.deleteRange(0, 899) != 100 || tree.deleteRange(1700, 5000) != 100 ||
+                tree.deleteRange(1000, 1099) != 100 || tree.deleteRange(1000, 1099) != 0) {
+            n++;
+        }
+        if (tree.size() != 700 || !tree.select(1).equals("900") || !tree.select(101).equals("1100") ||
+                !tree.max().equals("1699") || tree.search(1050) != null) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 34: floor, ceiling, lower, higher and walking by successorNode
+    private boolean caseNavigation() {
+        int n = 0;
+        WAVLTree tree = new WAVLTree(true, WAVLTree.DeleteMode.TOMBSTONE);
+        for (int value : values4) {
+            tree.insert(2 * value, "" + value); // 2 4 6 ... 20
+        }
+        tree.delete(10);
+        if (tree.floorKey(10, -1) != 8 || tree.ceilingKey(10, -1) != 12 || tree.floorKey(12, -1) != 12 ||
+                tree.lowerKey(12, -1) != 8 || tree.higherKey(8, -1) != 12 || tree.lowerKey(2, -1) != -1 ||
+                tree.higherKey(20, -1) != -1 || tree.ceilingKey(21, -1) != -1 || tree.floorKey(1, -1) != -1) {
+            n++;
+        }
+        WAVLTree.WAVLNode x = tree.ceilingNode(5);
+        if (x == null || x.getKey() != 6 || !x.getValue().equals("3")) {
+            n++;
+        }
+        int keys = 0;
+        for (; x != null; x = tree.successorNode(x)) {
+            keys++;
+        }
+        if (keys != 7 || tree.predecessorNode(tree.floorNode(12)).getKey() != 8) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 33: weighted tree, weight sums and sampling
+    private boolean caseWeighted() {
+        int n = 0;
+        WeightedWAVLTree tree = new WeightedWAVLTree();
+        for (int j = 0; j < values4.length; j++) {
+            tree.insert(values4[j], "" + values4[j], values4[j] % 2); // only odd keys have weight
+        }
+        tree.insert(20, "twenty");
+        if (tree.totalWeight() != 6 || tree.getWeight(20) != 1 || tree.getWeight(21) != -1) {
+            n++;
+        }
+        Random random = new Random(1);
+        for (int j = 0; j < 100; j++) {
+            int key = tree.sampleWeighted(random);
+            if (key % 2 == 0 && key != 20) {
+                n++;
+            }
+        }
+        int[] sample = tree.sampleWithoutReplacement(6, random);
+        Arrays.sort(sample);
+        if (!Arrays.equals(new int[] {1, 3, 5, 7, 9, 20}, sample) || tree.totalWeight() != 6) {
+            n++;
+        }
+        tree.setWeight(20, 0);
+        tree.delete(9);
+        if (tree.totalWeight() != 4 || tree.sampleUniform(random) > 20) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 32: sequence, positional inserts and removals, split and concat
+    private boolean caseSequence() {
+        int n = 0;
+        WAVLSequence sequence = new WAVLSequence();
+        for (int j = 0; j < values4.length; j++) {
+            sequence.add("" + values4[j]); // 1 2 3 ... 10
+        }
+        sequence.insertAt(0, "0");
+        sequence.insertAt(5, "x");
+        if (!sequence.removeAt(5).equals("x") || !sequence.get(0).equals("0") ||
+                !sequence.get(10).equals("10") || sequence.size() != 11) {
+            n++;
+        }
+        sequence.set(3, "three");
+        WAVLSequence tail = sequence.split(4); // 0 1 2 three | 4 ... 10
+        if (sequence.size() != 4 || tail.size() != 7 || !tail.get(0).equals("4")) {
+            n++;
+        }
+        tail.concat(sequence); // 4 ... 10 0 1 2 three
+        String[] expected = {"4", "5", "6", "7", "8", "9", "10", "0", "1", "2", "three"};
+        if (!sequence.empty() || !Arrays.equals(expected, tail.toArray())) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 31: interval tree, overlap queries after inserts and deletes
+    private boolean caseIntervals() {
+        int n = 0;
+        IntervalWAVLTree intervals = new IntervalWAVLTree();
+        for (int value : values) {
+            intervals.insert(value, value + 10, "" + value); // [800, 810) ... [1799, 1809)
+        }
+        intervals.insert(0, 5000, "long");
+        for (int value = 800; value < 1800; value += 2) {
+            if (intervals.delete(value, value + 10) == -1) {
+                n++;
+            }
+        }
+        if (intervals.delete(800, 810) != -1 || intervals.size() != 501) {
+            n++;
+        }
+        // [1000, 1010) overlaps the odd starts 991..1009, and the long interval
+        if (intervals.countOverlapping(1000, 1010) != 11) {
+            n++;
+        }
+        int previous = Integer.MIN_VALUE;
+        int found = 0;
+        for (IntervalWAVLTree.OverlapCursor cursor = intervals.overlapping(1805); cursor.next(); ) {
+            if (cursor.start() < previous || cursor.start() > 1805 || cursor.end() <= 1805) {
+                n++;
+            }
+            previous = cursor.start();
+            found++;
+        }
+        if (found != 3) { // 1797, 1799 and the long interval
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 30: augmented tree, range sums through inserts, deletes and rotations,
+    //both bottom-up and top-down
+    private boolean caseAugmented() {
+        int n = 0;
+        AugmentedWAVLTree<Long> sums = new AugmentedWAVLTree<Long>(Monoid.keySum());
+        for (int j = 0; j < values.length; j++) {
+            if (j % 3 == 0) {
+                sums.insertTopDown(values[j], "" + values[j]);
+            } else {
+                sums.insert(values[j], "" + values[j]);
+            }
+        }
+        long inserted = 0;
+        for (int value : values) {
+            inserted += value;
+        }
+        for (int j = values.length - 1; j >= 0; j -= 4) {
+            sums.deleteTopDown(values[j]);
+            sums.insertTopDown(values[j], "" + values[j]);
+        }
+        if (sums.aggregate() != inserted) {
+            n++;
+        }
+        for (int j = 0; j < values.length; j += 2) {
+            if (j % 4 == 0) {
+                sums.deleteTopDown(values[j]);
+            } else {
+                sums.delete(values[j]);
+            }
+        }
+        long all = 0;
+        long range = 0;
+        for (int j = 1; j < values.length; j += 2) {
+            all += values[j];
+            if (values[j] >= 1000 && values[j] <= 1500) {
+                range += values[j];
+            }
+        }
+        if (sums.aggregate() != all ||
+                sums.aggregate(1000, 1500) != range ||
+                sums.aggregate(0, 799) != 0) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 29: bitmap set over the dense keys 800-1800
+    private boolean caseBitmapSet() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        BitmapWAVLSet set = new BitmapWAVLSet();
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            if (!set.add(value)) {
+                n++;
+            }
+        }
+        for (int j = 0; j < values.length; j += 3) {
+            actualTree.delete(values[j]);
+            if (!set.remove(values[j]) || set.contains(values[j])) {
+                n++;
+            }
+        }
+        int[] keys = actualTree.keysToArray();
+        if (set.size() != keys.length ||
+                !TesterUtils.arraysIdentical(keys, set.keysToArray()) ||
+                set.select(100) != keys[99] ||
+                set.rank(keys[99]) != 99 ||
+                set.countInRange(keys[10], keys[20]) != 11) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 28: a tree with a pool of its own, under delete and insert churn
+    private boolean caseNodePool() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree(10);
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.insert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j++) {
+            actualTree.delete(values[j]);
+            wavlTree.delete(values[j]);
+            if (wavlTree.getPool().size() != 1) {
+                n++;
+            }
+            actualTree.insert(values[j] + 1000, "" + j);
+            wavlTree.insert(values[j] + 1000, "" + j);
+            if (wavlTree.getPool().size() != 0) {
+                n++;
+            }
+        }
+        for (int j = 0; j < 10; j++) {
+            wavlTree.delete(values[j] + 1000);
+            actualTree.delete(values[j] + 1000);
+        }
+        for (int j = 10; j < 20; j++) { // keys already in the tree take no node from the pool
+            if (wavlTree.insert(values[j] + 1000, "again") != -1) {
+                n++;
+            }
+        }
+        if (wavlTree.getPool().size() != 10) {
+            n++;
+        }
+        if (!TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray()) ||
+                !actualTree.select(500).equals(wavlTree.select(500))) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 27: forest, two trees sharing a node pool
+    private boolean caseForest() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        WAVLForest forest = new WAVLForest(100);
+        WAVLTree first = forest.newTree();
+        WAVLTree second = forest.newTree();
+        for (int value : values) {
+            first.insert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j += 2) {
+            first.delete(values[j]);
+        }
+        if (forest.pool().size() != 100) {
+            n++;
+        }
+        for (int j = 0; j < values.length; j += 2) {
+            actualTree.insert(values[j], "" + values[j]);
+            second.insert(values[j], "" + values[j]);
+        }
+        if (forest.pool().size() != 0 ||
+                first.size() != values.length / 2 ||
+                first.search(values[0]) != null ||
+                !first.search(values[1]).equals("" + values[1]) ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), second.keysToArray()) ||
+                WAVLTree.OUTER_NODE.getParent() != null) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 26: adaptive container, promoted to a tree and demoted back
+    private boolean caseAdaptive() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        AdaptiveWAVLTree adaptive = new AdaptiveWAVLTree();
+        for (int j = 0; j < 100; j++) {
+            actualTree.insert(values[j], "" + values[j]);
+            if (adaptive.insert(values[j], "" + values[j]) == -1) {
+                n++;
+            }
+        }
+        if (!adaptive.isTree() || adaptive.insert(values[0], "") != -1) {
+            n++;
+        }
+        for (int j = 0; j < 90; j++) {
+            actualTree.delete(values[j]);
+            if (adaptive.delete(values[j]) == -1 || adaptive.search(values[j]) != null) {
+                n++;
+            }
+        }
+        if (adaptive.isTree() ||
+                actualTree.size() != adaptive.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), adaptive.keysToArray()) ||
+                !actualTree.select(5).equals(adaptive.select(5)) ||
+                !actualTree.min().equals(adaptive.min()) ||
+                !actualTree.max().equals(adaptive.max())) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 25: block tree, with block splits, merges and refills on the way
+    private boolean caseBlockTree() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        BlockWAVLTree blockTree = new BlockWAVLTree(BlockWAVLTree.MIN_BLOCK_SIZE);
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            if (blockTree.insert(value, "" + value) == -1) {
+                n++;
+            }
+        }
+        for (int j = 0; j < values.length; j++) {
+            if (j % 3 != 0) {
+                actualTree.delete(values[j]);
+                if (blockTree.delete(values[j]) == -1 || blockTree.search(values[j]) != null) {
+                    n++;
+                }
+            }
+        }
+        if (actualTree.size() != blockTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), blockTree.keysToArray()) ||
+                !actualTree.select(100).equals(blockTree.select(100)) ||
+                !actualTree.min().equals(blockTree.min()) ||
+                !actualTree.max().equals(blockTree.max()) ||
+                blockTree.blocks() > blockTree.size() / (BlockWAVLTree.MIN_BLOCK_SIZE / 4) + 1) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 24: van Emde Boas layout, on the heap and memory-mapped
+    private boolean caseVebLayout() throws java.io.IOException {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        for (int j = 0; j < values.length; j += 3) {
+            actualTree.insert(values[j], "" + values[j]);
+            wavlTree.insert(values[j], "" + values[j]);
+        }
+        actualTree.insert(-1, null); // null info stays null, not ""
+        wavlTree.insert(-1, null);
+        java.io.File file = java.io.File.createTempFile("veb", ".layout");
+        file.deleteOnExit();
+        VebLayout.write(wavlTree, file);
+        VebLayout[] layouts = {VebLayout.export(wavlTree), VebLayout.map(file)};
+        for (VebLayout layout : layouts) {
+            if (layout.size() != actualTree.size() || layout.search(-1) != null) {
+                n++;
+            }
+            for (int value : values) {
+                String expected = actualTree.search(value);
+                if (expected == null ? layout.search(value) != null : !expected.equals(layout.search(value))) {
+                    n++;
+                }
+            }
+        }
+        return (n == 0);
+    }
+
+    //case 23: frozen snapshot, unchanged by later deletions
+    private boolean caseFreeze() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.insert(value, "" + value);
+        }
+        FrozenWAVLTree frozen = wavlTree.freeze();
+        for (int j = 0; j < values.length; j += 2) {
+            wavlTree.delete(values[j]);
+        }
+        for (int j = 0; j < values.length; j++) {
+            if (!actualTree.search(values[j]).equals(frozen.search(values[j]))) {
+                n++;
+            }
+        }
+        if (frozen.search(-5) != null || frozen.search(100000) != null ||
+                actualTree.size() != frozen.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), frozen.keysToArray()) ||
+                !actualTree.select(100).equals(frozen.select(100)) ||
+                !actualTree.min().equals(frozen.min()) ||
+                !actualTree.max().equals(frozen.max())) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 22: sorted batch insertion and deletion
+    private boolean caseBulkUpdates() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        int[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        String[] info = new String[sorted.length];
+        int[] evens = new int[(sorted.length + 1) / 2];
+        String[] evensInfo = new String[evens.length];
+        for (int j = 0; j < sorted.length; j++) {
+            info[j] = "" + sorted[j];
+            actualTree.insert(sorted[j], info[j]);
+            if (j % 2 == 0) {
+                evens[j / 2] = sorted[j];
+                evensInfo[j / 2] = info[j];
+            }
+        }
+        if (wavlTree.insertAll(evens, evensInfo) != evens.length ||
+                wavlTree.insertAll(sorted, info) != sorted.length - evens.length) {
+            n++;
+        }
+        int[] thirds = new int[sorted.length / 3];
+        for (int j = 0; j < thirds.length; j++) {
+            thirds[j] = sorted[3 * j];
+            actualTree.delete(thirds[j]);
+        }
+        if (wavlTree.deleteAll(thirds) != thirds.length || wavlTree.deleteAll(thirds) != 0) {
+            n++;
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray()) ||
+                !actualTree.select(100).equals(wavlTree.select(100))) {
+            n++;
+        }
+        if (height(wavlTree.getRoot()) > 1 + 2 * Math.log(wavlTree.size()) / Math.log(2)) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 21: batched searches, in random and in sorted order
+    private boolean caseSearchBatch() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        for (int j = 0; j < values.length; j += 2) {
+            actualTree.insert(values[j], "" + values[j]);
+            wavlTree.insert(values[j], "" + values[j]);
+        }
+        String[] out = new String[values.length];
+        wavlTree.searchBatch(values, out);
+        for (int j = 0; j < values.length; j++) {
+            String expected = actualTree.search(values[j]);
+            if (expected == null ? out[j] != null : !expected.equals(out[j])) {
+                n++;
+            }
+        }
+        int[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        wavlTree.searchSortedBatch(sorted, out);
+        for (int j = 0; j < sorted.length; j++) {
+            String expected = actualTree.search(sorted[j]);
+            if (expected == null ? out[j] != null : !expected.equals(out[j])) {
+                n++;
+            }
+        }
+        return (n == 0);
+    }
+
+    //case 20: finger insertion and search, in order and then in random order
+    private boolean caseFinger() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        for (int j = 0; j < 1000; j++) {
+            actualTree.insert(j, "" + j);
+            wavlTree.fingerInsert(j, "" + j);
+        }
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.fingerInsert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j += 2) {
+            actualTree.delete(values[j]);
+            wavlTree.delete(values[j]);
+        }
+        for (int value : values) {
+            String expected = actualTree.search(value);
+            if (expected == null ? wavlTree.fingerSearch(value) != null : !expected.equals(wavlTree.fingerSearch(value))) {
+                n++;
+            }
+        }
+        if (wavlTree.fingerInsert(500, "") != -1 || !"500".equals(wavlTree.fingerSearch(500))) {
+            n++;
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray())) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 19: lazy deletion, with reinserted keys and purges on the way
+    private boolean caseTombstones() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree(true, WAVLTree.DeleteMode.TOMBSTONE);
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.insert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j++) {
+            if (j % 3 != 0) {
+                actualTree.delete(values[j]);
+                if (wavlTree.delete(values[j]) != 0 || wavlTree.search(values[j]) != null) {
+                    n++;
+                }
+            }
+        }
+        for (int j = 0; j < values.length; j += 2) {
+            if (j % 3 != 0) {
+                actualTree.insert(values[j], "new" + values[j]);
+                if (wavlTree.insert(values[j], "new" + values[j]) == -1) {
+                    n++;
+                }
+            }
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray()) ||
+                !actualTree.select(100).equals(wavlTree.select(100)) ||
+                !actualTree.min().equals(wavlTree.min()) ||
+                !actualTree.max().equals(wavlTree.max())) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 18: deletion without rebalancing, with rebuilds on the way
+    private boolean caseDeleteWithoutRebalancing() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree(true, WAVLTree.DeleteMode.NO_REBALANCE);
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.insert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j++) {
+            if (j % 3 != 0) {
+                actualTree.delete(values[j]);
+                if (wavlTree.delete(values[j]) != 0) {
+                    n++;
+                }
+            }
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray()) ||
+                !actualTree.select(100).equals(wavlTree.select(100))) {
+            n++;
+        }
+        // log_phi(2n), with the extra level of height() for outer nodes
+        if (height(wavlTree.getRoot()) > 2 + Math.log(2 * wavlTree.size()) / Math.log(1.618)) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 17: top-down insertion and deletion, mixed with the bottom-up ones
+    private boolean caseTopDown() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree();
+        for (int j = 0; j < values.length; j++) {
+            actualTree.insert(values[j], "" + values[j]);
+            if (j % 2 == 0) {
+                wavlTree.insertTopDown(values[j], "" + values[j]);
+            } else {
+                wavlTree.insert(values[j], "" + values[j]);
+            }
+        }
+        if (wavlTree.insertTopDown(values[0], "" + values[0]) != -1 ||
+                wavlTree.deleteTopDown(22) != -1) {
+            n++;
+        }
+        for (int j = 0; j < values.length; j += 3) {
+            actualTree.delete(values[j]);
+            if (j % 2 == 0) {
+                wavlTree.deleteTopDown(values[j]);
+            } else {
+                wavlTree.delete(values[j]);
+            }
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray()) ||
+                !actualTree.select(100).equals(wavlTree.select(100))) {
+            n++;
+        }
+        if (height(wavlTree.getRoot()) > 2 * (Math.log(wavlTree.size()) / Math.log(2))) {
+            n++;
+        }
+        return (n == 0);
+    }
+
+    //case 16: a tree without subtree sizes behaves the same, except for select
+    private boolean caseSizeFree() {
+        int n = 0;
+        actualTree = new ActualWAVLTree();
+        wavlTree = new WAVLTree(false);
+        for (int value : values) {
+            actualTree.insert(value, "" + value);
+            wavlTree.insert(value, "" + value);
+        }
+        for (int j = 0; j < values.length; j += 3) {
+            actualTree.delete(values[j]);
+            wavlTree.delete(values[j]);
+        }
+        if (actualTree.size() != wavlTree.size() ||
+                !TesterUtils.arraysIdentical(actualTree.keysToArray(), wavlTree.keysToArray())) {
+            n++;
+        }
+        try {
+            wavlTree.select(1);
+            n++;
+        } catch (UnsupportedOperationException e) {
+            // expected, sizes aren't maintained
+        }
+        return (n == 0);
+    }
+
     //case 13: select
     private boolean caseSelect() {
         actualTree = new ActualWAVLTree();
@@ -461,7 +1214,7 @@ public class ExTester
 
     public static void main(String[] args) {
         // initialize tests success array to false
-        final SuccessStatus[] success = new SuccessStatus[16];
+        final SuccessStatus[] success = new SuccessStatus[40];
 
         final ExTester tester = new ExTester();
 
@@ -664,6 +1417,294 @@ public class ExTester
                     }
                 }), 15);
 
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[16] = tester.caseSizeFree() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[16] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 16);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[17] = tester.caseTopDown() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[17] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 17);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[18] = tester.caseDeleteWithoutRebalancing() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[18] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 18);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[19] = tester.caseTombstones() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[19] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 19);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[20] = tester.caseFinger() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[20] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 20);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[21] = tester.caseSearchBatch() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[21] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 21);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[22] = tester.caseBulkUpdates() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[22] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 22);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[23] = tester.caseFreeze() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[23] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 23);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[24] = tester.caseVebLayout() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[24] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 24);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[25] = tester.caseBlockTree() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[25] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 25);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[26] = tester.caseAdaptive() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[26] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 26);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[27] = tester.caseForest() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[27] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 27);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[28] = tester.caseNodePool() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[28] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 28);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[29] = tester.caseBitmapSet() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[29] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 29);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[30] = tester.caseAugmented() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[30] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 30);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[31] = tester.caseIntervals() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[31] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 31);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[32] = tester.caseSequence() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[32] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 32);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[33] = tester.caseWeighted() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[33] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 33);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[34] = tester.caseNavigation() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[34] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 34);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[35] = tester.caseRanges() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[35] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 35);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[36] = tester.caseQueue() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[36] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 36);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[37] = tester.caseUpserts() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[37] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 37);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[38] = tester.caseMultiset() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[38] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 38);
+
+        runWithInterrupt(success,
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            success[39] = tester.caseLongKeys() ? SuccessStatus.PASS : SuccessStatus.FAIL;
+                        } catch (Throwable e) {
+                            success[39] = SuccessStatus.EXCEPTION;
+                        }
+                    }
+                }), 39);
+
         TesterUtils.printStatus(success, tester.actualOperations, tester.wavlOperations);
 
     }
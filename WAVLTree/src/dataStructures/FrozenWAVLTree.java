@@ -0,0 +1,164 @@
+package dataStructures;
+
+/**
+ *
+ * FrozenWAVLTree
+ *
+ * An immutable snapshot of a WAVLTree, made by WAVLTree.freeze(), for trees
+ * that are read much more than they are changed.
+ *
+ * The keys are kept in an int[] in Eytzinger (BFS) order: the root is at
+ * index 1, and the children of index i are at 2i and 2i+1. The info is kept
+ * in a parallel array. A search is then a loop over one array with no
+ * pointers to follow, and its next index is computed without a branch.
+ * The 16 descendants 4 levels below index i are 16 consecutive ints, 64
+ * bytes. Arrays are only 8-byte aligned, so those bytes usually span two
+ * cache lines, not one, and nothing here prefetches them explicitly.
+ * rankToIndex maps the i'th smallest key to its index, for select.
+ *
+ */
+public class FrozenWAVLTree {
+	private final int[] keys; // keys[1..n] in Eytzinger order, keys[0] unused
+	private final String[] values; // values[i] is the info of keys[i]
+	private final int[] rankToIndex; // rankToIndex[i] is the index of the i'th smallest key (0-based i)
+
+	/**
+	 * Builds the snapshot from the keys and info of a tree, sorted by key.
+	 * Filling the implicit tree in-order places the sorted items in
+	 * Eytzinger order.
+	 * @Complexity O(n)
+	 * @param sortedKeys int[] the keys, in ascending order
+	 * @param sortedValues String[] the info of each key
+	 */
+	FrozenWAVLTree(int[] sortedKeys, String[] sortedValues) {
+		int n = sortedKeys.length;
+		this.keys = new int[n + 1];
+		this.values = new String[n + 1];
+		this.rankToIndex = new int[n];
+		fill(1, 0, sortedKeys, sortedValues);
+	}
+
+	/**
+	 * Places the sorted items from next on in the subtree of index i, in-order.
+	 * @Complexity O(size of the subtree), recursion depth O(log n)
+	 * @param i int index of the subtree root
+	 * @param next int the first sorted item to place
+	 * @param sortedKeys int[] the keys, in ascending order
+	 * @param sortedValues String[] the info of each key
+	 * @return the first sorted item left for after the subtree
+	 */
+	private int fill(int i, int next, int[] sortedKeys, String[] sortedValues) {
+		if (i >= keys.length) {
+			return next;
+		}
+		next = fill(2 * i, next, sortedKeys, sortedValues);
+		keys[i] = sortedKeys[next];
+		values[i] = sortedValues[next];
+		rankToIndex[next] = i;
+		return fill(2 * i + 1, next + 1, sortedKeys, sortedValues);
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the snapshot is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no keys
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of keys in the snapshot.
+	 * @Complexity O(1)
+	 * @return the number of keys
+	 */
+	public int size() {
+		return rankToIndex.length;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * returns the info of the item with key k if it exists in the snapshot,
+	 * otherwise returns null
+	 *
+	 * The loop goes down to an empty slot below the leaves, going right exactly
+	 * when the key at i is smaller than k. The last left turn was at the first
+	 * key >= k: shifting out the right turns (trailing 1 bits) and that left
+	 * turn gives its index.
+	 * @Complexity O(log n), with no data-dependent branches in the loop
+	 * @param k int key to search for
+	 * @return value of key k, or null if it doesn't exists
+	 */
+	public String search(int k) {
+		int n = rankToIndex.length;
+		int i = 1;
+		while (i <= n) {
+			i = 2 * i + (keys[i] < k ? 1 : 0);
+		}
+		i >>>= Integer.numberOfTrailingZeros(~i) + 1;
+		if (i == 0 || keys[i] != k) { // i == 0 if all the keys are smaller than k
+			return null;
+		}
+		return values[i];
+	}
+
+	/**
+	 * public String select(int i)
+	 *
+	 * Returns the info of the i'th smallest key (1-based), or null if i is out
+	 * of range.
+	 * @Complexity O(1)
+	 * @param i int index to search for
+	 * @return the info of the i'th smallest key
+	 */
+	public String select(int i) {
+		if (i < 1 || i > size()) {
+			return null;
+		}
+		return values[rankToIndex[i - 1]];
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key, or null if the
+	 * snapshot is empty.
+	 * @Complexity O(1)
+	 * @return the info of the smallest key
+	 */
+	public String min() {
+		return select(1);
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key, or null if the
+	 * snapshot is empty.
+	 * @Complexity O(1)
+	 * @return the info of the largest key
+	 */
+	public String max() {
+		return select(size());
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array of the keys, or an empty array if the snapshot is empty.
+	 * @Complexity O(n)
+	 * @return int[] the keys in ascending order
+	 */
+	public int[] keysToArray() {
+		int[] arr = new int[size()];
+		for (int j = 0; j < arr.length; j++) {
+			arr[j] = keys[rankToIndex[j]];
+		}
+		return arr;
+	}
+}
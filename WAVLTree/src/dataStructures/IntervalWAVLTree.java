@@ -0,0 +1,331 @@
+package dataStructures;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ *
+ * IntervalWAVLTree
+ *
+ * A collection of half-open intervals [start, end), each with a String info,
+ * for overlap queries. The intervals are kept in a WAVL tree keyed by start,
+ * where a node holds all the intervals with its start. Every node also keeps
+ * maxEnd, the largest end in its subtree. maxEnd is recomputed with the
+ * subtree size in updateSubtreeSize, so insert, delete and the rotations keep
+ * it current in the same places they keep the sizes.
+ *
+ * An overlap query goes down the tree in order, and skips every subtree
+ * whose maxEnd isn't above the query's start, and everything right of a node
+ * whose start isn't below the query's end. The overlapping intervals are
+ * streamed through an OverlapCursor, in the order of their starts.
+ *
+ */
+public class IntervalWAVLTree {
+	private final Index index = new Index();
+
+	/**
+	 * The WAVL tree of the starts.
+	 */
+	private static class Index extends WAVLTree {
+
+		/**
+		 * @Complexity O(log n)
+		 * @param start int start of intervals
+		 * @return the node of the intervals with that start, or null if there are none
+		 */
+		Node nodeOf(int start) {
+			WAVLNode x = treeSearch(top(), start);
+			return x.isInnerNode() ? (Node) x : null;
+		}
+	}
+
+	/**
+	 * A node with all the intervals of one start, and the maxEnd of its subtree.
+	 */
+	private static class Node extends WAVLTree.WAVLNode {
+		private int[] ends = new int[1];
+		private String[] infos = new String[1];
+		private int n; // the number of intervals in the node
+		private int ownMaxEnd = Integer.MIN_VALUE; // the largest end in the node
+		private int maxEnd = Integer.MIN_VALUE; // the largest end in the subtree
+
+		/**
+		 * @param start int the start of the node's intervals
+		 */
+		Node(int start) {
+			super(start, null, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+		}
+
+		@Override
+		protected int selfSize() {
+			return n;
+		}
+
+		/**
+		 * @Complexity O(1), the node's own largest end is kept by insert and
+		 * 				delete
+		 */
+		@Override
+		public void updateSubtreeSize() {
+			super.updateSubtreeSize();
+			maxEnd = Math.max(ownMaxEnd, Math.max(maxEndOf(getLeft()), maxEndOf(getRight())));
+		}
+
+		/**
+		 * Finds the node's own largest end again, after that end was removed.
+		 * @Complexity O(n), n the number of intervals in the node
+		 */
+		void rescanOwnMaxEnd() {
+			int max = Integer.MIN_VALUE;
+			for (int j = 0; j < n; j++) {
+				max = Math.max(max, ends[j]);
+			}
+			ownMaxEnd = max;
+		}
+
+		@Override
+		protected boolean contributesLike(WAVLTree.WAVLNode other) {
+			return false; // the maxEnds above may depend on either node
+		}
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param x WAVLNode a node of the tree, or OUTER_NODE
+	 * @return the largest end in the subtree of x, Integer.MIN_VALUE if empty
+	 */
+	private static int maxEndOf(WAVLTree.WAVLNode x) {
+		return x.isInnerNode() ? ((Node) x).maxEnd : Integer.MIN_VALUE;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if there are no intervals
+	 * @Complexity O(1)
+	 * @return boolean true if there are no intervals
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of intervals.
+	 * @Complexity O(1)
+	 * @return the number of intervals
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public int insert(int start, int end, String info)
+	 *
+	 * Adds the interval [start, end) with info. Intervals may repeat.
+	 * @Complexity O(log n + intervals with the same start)
+	 * @param start int first point of the interval
+	 * @param end int the point after the interval, larger than start
+	 * @param info String info of the interval
+	 * @return the number of rebalance operations
+	 * @throws IllegalArgumentException if end <= start
+	 */
+	public int insert(int start, int end, String info) {
+		if (end <= start) {
+			throw new IllegalArgumentException("empty interval [" + start + ", " + end + ")");
+		}
+		Node x = index.nodeOf(start);
+		int steps = 0;
+		if (x == null) {
+			x = new Node(start);
+			steps = index.insertNode(x);
+		}
+		if (x.n == x.ends.length) {
+			x.ends = Arrays.copyOf(x.ends, 2 * x.n);
+			x.infos = Arrays.copyOf(x.infos, 2 * x.n);
+		}
+		x.ends[x.n] = end;
+		x.infos[x.n] = info;
+		x.n++;
+		x.ownMaxEnd = Math.max(x.ownMaxEnd, end);
+		index.updateSizeUp(x);
+		return steps;
+	}
+
+	/**
+	 * public int delete(int start, int end)
+	 *
+	 * Removes one interval [start, end), if there is one.
+	 * @Complexity O(log n + intervals with the same start)
+	 * @param start int first point of the interval
+	 * @param end int the point after the interval
+	 * @return the number of rebalance operations, or -1 if there is no such interval
+	 */
+	public int delete(int start, int end) {
+		Node x = index.nodeOf(start);
+		int j = 0;
+		while (x != null && j < x.n && x.ends[j] != end) {
+			j++;
+		}
+		if (x == null || j == x.n) {
+			return -1;
+		}
+		x.n--;
+		x.ends[j] = x.ends[x.n];
+		x.infos[j] = x.infos[x.n];
+		x.infos[x.n] = null;
+		if (end == x.ownMaxEnd) {
+			x.rescanOwnMaxEnd();
+		}
+		index.updateSizeUp(x);
+		if (x.n == 0) {
+			return index.delete(start);
+		}
+		return 0;
+	}
+
+	/**
+	 * public OverlapCursor overlapping(int point)
+	 *
+	 * Returns a cursor over the intervals that contain point.
+	 * @Complexity O(log n) to start, see OverlapCursor for the rest
+	 * @param point int the point
+	 * @return OverlapCursor over the intervals with start <= point < end
+	 */
+	public OverlapCursor overlapping(int point) {
+		return new OverlapCursor(point, (long) point + 1);
+	}
+
+	/**
+	 * public OverlapCursor overlapping(int lo, int hi)
+	 *
+	 * Returns a cursor over the intervals that overlap [lo, hi).
+	 * @Complexity O(log n) to start, see OverlapCursor for the rest
+	 * @param lo int first point of the range
+	 * @param hi int the point after the range
+	 * @return OverlapCursor over the intervals with start < hi and end > lo
+	 */
+	public OverlapCursor overlapping(int lo, int hi) {
+		return new OverlapCursor(lo, hi);
+	}
+
+	/**
+	 * public int countOverlapping(int lo, int hi)
+	 *
+	 * @Complexity that of going through overlapping(lo, hi)
+	 * @param lo int first point of the range
+	 * @param hi int the point after the range
+	 * @return the number of intervals that overlap [lo, hi)
+	 */
+	public int countOverlapping(int lo, int hi) {
+		int count = 0;
+		for (OverlapCursor c = overlapping(lo, hi); c.next(); ) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 *
+	 * OverlapCursor
+	 *
+	 * Streams the intervals that overlap a range, in the order of their starts,
+	 * without collecting them first. next() moves to the next interval, and
+	 * start(), end() and info() read it. The tree must not change while a
+	 * cursor is used.
+	 * The cursor keeps the path of nodes it will still visit, and visits only
+	 * nodes whose subtree has an interval ending after lo, with a start before
+	 * hi. Each such node leads to an overlapping interval within O(log n)
+	 * steps, so k results take O((k + 1) log n) steps at most, and usually
+	 * O(log n + k) when the overlapping intervals are close in the tree.
+	 *
+	 */
+	public class OverlapCursor {
+		private final int lo;
+		private final long hi; // long, so the range after Integer.MAX_VALUE fits
+		private final ArrayDeque<Node> path = new ArrayDeque<Node>();
+		private Node current; // the node of the current interval, null before the first
+		private int j; // the index of the current interval in current
+
+		/**
+		 * @param lo int first point of the range
+		 * @param hi long the point after the range
+		 */
+		private OverlapCursor(int lo, long hi) {
+			this.lo = lo;
+			this.hi = hi;
+			this.current = null;
+			this.j = 0;
+			pushLeft(index.top());
+		}
+
+		/**
+		 * Pushes the nodes from x down its left spine that may hold results.
+		 * A subtree whose maxEnd is at most lo is skipped. A node with start >= hi
+		 * isn't pushed (it and its right subtree start too late), but its left
+		 * subtree is still searched.
+		 * @Complexity O(log n)
+		 */
+		private void pushLeft(WAVLTree.WAVLNode x) {
+			while (x.isInnerNode() && maxEndOf(x) > lo) {
+				if (x.getKey() < hi) {
+					path.push((Node) x);
+				}
+				x = x.getLeft();
+			}
+		}
+
+		/**
+		 * public boolean next()
+		 *
+		 * Moves to the next overlapping interval.
+		 * @Complexity O(log n) amortized per visited node
+		 * @return true if there is one, false if the results are done
+		 */
+		public boolean next() {
+			while (true) {
+				if (current != null) {
+					j++;
+					while (j < current.n) {
+						if (current.ends[j] > lo) {
+							return true;
+						}
+						j++;
+					}
+				}
+				if (path.isEmpty()) {
+					current = null;
+					return false;
+				}
+				current = path.pop();
+				pushLeft(current.getRight());
+				j = -1;
+			}
+		}
+
+		/**
+		 * @Complexity O(1)
+		 * @return the start of the current interval
+		 */
+		public int start() {
+			return current.getKey();
+		}
+
+		/**
+		 * @Complexity O(1)
+		 * @return the end of the current interval
+		 */
+		public int end() {
+			return current.ends[j];
+		}
+
+		/**
+		 * @Complexity O(1)
+		 * @return the info of the current interval
+		 */
+		public String info() {
+			return current.infos[j];
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package dataStructures;
+
+/**
+ *
+ * LongWAVLTree
+ *
+ * A WAVL tree keyed by long, for keys that don't fit in an int (64-bit ids).
+ * The nodes keep their long key in a WAVLNode subclass, and are searched
+ * with plain long comparisons, so no key is boxed. The place of a new key is
+ * found by that search, and the node is linked and rebalanced by the
+ * WAVLTree underneath (insertLeaf, deleteNode), so the rebalancing, the
+ * rebalance counts, and the subtree sizes for select and rank are the same
+ * as in WAVLTree.
+ *
+ */
+public class LongWAVLTree {
+	private final Index index = new Index();
+
+	/**
+	 * The WAVL tree of the nodes. The int keys of its nodes are unused (0),
+	 * so it isn't exposed.
+	 */
+	private static class Index extends WAVLTree {
+
+		/**
+		 * @Complexity O(log n)
+		 * @param k long key to look for
+		 * @return the node of k, or null if k isn't in the tree
+		 */
+		LongNode nodeOf(long k) {
+			WAVLNode x = top();
+			while (x.isInnerNode()) {
+				long key = ((LongNode) x).key;
+				if (k == key) {
+					return (LongNode) x;
+				}
+				x = k < key ? x.getLeft() : x.getRight();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A node with a long key.
+	 */
+	private static class LongNode extends WAVLTree.WAVLNode {
+		private final long key;
+
+		/**
+		 * @param k long key of the node
+		 * @param i String info of the node
+		 */
+		LongNode(long k, String i) {
+			super(0, i, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+			this.key = k;
+		}
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the tree is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no items
+	 */
+	public boolean empty() {
+		return index.empty();
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of items
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public String search(long k)
+	 *
+	 * @Complexity O(log n)
+	 * @param k long key to search for
+	 * @return the info of k, or null if it isn't in the tree
+	 */
+	public String search(long k) {
+		LongNode x = index.nodeOf(k);
+		return x == null ? null : x.getValue();
+	}
+
+	/**
+	 * public int insert(long k, String i)
+	 *
+	 * Inserts an item with key k and info i, as WAVLTree.insert does. The
+	 * search for k ends at the parent of the new leaf, which insertLeaf links
+	 * it to.
+	 * @Complexity O(log n) WC, O(1) amortized rebalancing
+	 * @param k long key of the item
+	 * @param i String info of the item
+	 * @return the number of rebalance operations, or -1 if k is already in the tree
+	 */
+	public int insert(long k, String i) {
+		WAVLTree.WAVLNode parent = index.top();
+		WAVLTree.WAVLNode x = parent;
+		boolean left = true;
+		while (x.isInnerNode()) {
+			long key = ((LongNode) x).key;
+			if (k == key) {
+				return -1;
+			}
+			parent = x;
+			left = k < key;
+			x = left ? x.getLeft() : x.getRight();
+		}
+		return index.insertLeaf(parent, new LongNode(k, i), left);
+	}
+
+	/**
+	 * public int delete(long k)
+	 *
+	 * Deletes the item with key k, as WAVLTree.delete does.
+	 * @Complexity O(log n) WC, O(1) amortized rebalancing
+	 * @param k long key to delete
+	 * @return the number of rebalance operations, or -1 if k isn't in the tree
+	 */
+	public int delete(long k) {
+		LongNode x = index.nodeOf(k);
+		return x == null ? -1 : index.deleteNode(x);
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * @Complexity O(log n)
+	 * @return the info of the smallest key, or null if the tree is empty
+	 */
+	public String min() {
+		return index.min();
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * @Complexity O(log n)
+	 * @return the info of the largest key, or null if the tree is empty
+	 */
+	public String max() {
+		return index.max();
+	}
+
+	/**
+	 * public String select(int i)
+	 *
+	 * @Complexity O(log n)
+	 * @param i int index to search for, 1 to size()
+	 * @return the info of the i'th smallest key, or null if i is out of range
+	 */
+	public String select(int i) {
+		return i < 1 ? null : index.select(i);
+	}
+
+	/**
+	 * public int rank(long k)
+	 *
+	 * @Complexity O(log n)
+	 * @param k long any key
+	 * @return the number of keys smaller than k
+	 */
+	public int rank(long k) {
+		int below = 0;
+		WAVLTree.WAVLNode x = index.top();
+		while (x.isInnerNode()) {
+			long key = ((LongNode) x).key;
+			if (k <= key) {
+				x = x.getLeft();
+			} else {
+				below += x.getLeft().getSubtreeSize() + 1;
+				x = x.getRight();
+			}
+		}
+		return below;
+	}
+
+	/**
+	 * public long[] keysToArray()
+	 *
+	 * @Complexity O(n)
+	 * @return long[] the keys in ascending order
+	 */
+	public long[] keysToArray() {
+		long[] out = new long[size()];
+		collect(index.top(), out, 0);
+		return out;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * @Complexity O(n)
+	 * @return String[] the info of the items, in the order of their keys
+	 */
+	public String[] infoToArray() {
+		return index.infoToArray();
+	}
+
+	/**
+	 * Copies the keys of the subtree of x into out, in order.
+	 * @Complexity O(nodes in the subtree)
+	 * @return the number of keys in out
+	 */
+	private int collect(WAVLTree.WAVLNode x, long[] out, int m) {
+		if (!x.isInnerNode()) {
+			return m;
+		}
+		m = collect(x.getLeft(), out, m);
+		out[m++] = ((LongNode) x).key;
+		return collect(x.getRight(), out, m);
+	}
+}
@@ -0,0 +1,99 @@
+package dataStructures;
+
+/**
+ *
+ * Monoid
+ *
+ * How an AugmentedWAVLTree summarizes its items. Every item is lifted to a
+ * summary, and summaries are combined in key order. combine must be
+ * associative, and identity must be its neutral element; combine doesn't
+ * have to be commutative.
+ *
+ * @param <A> the type of the summaries
+ */
+public interface Monoid<A> {
+
+	/**
+	 * @return the summary of no items
+	 */
+	A identity();
+
+	/**
+	 * @param key int key of an item
+	 * @param info String info of the item
+	 * @return the summary of the single item
+	 */
+	A lift(int key, String info);
+
+	/**
+	 * @param left A summary of some items
+	 * @param right A summary of items with larger keys
+	 * @return the summary of both, in order
+	 */
+	A combine(A left, A right);
+
+	/**
+	 * @return a monoid that sums the keys
+	 */
+	static Monoid<Long> keySum() {
+		return new Monoid<Long>() {
+			public Long identity() {
+				return 0L;
+			}
+
+			public Long lift(int key, String info) {
+				return (long) key;
+			}
+
+			public Long combine(Long left, Long right) {
+				return left + right;
+			}
+		};
+	}
+
+	/**
+	 * @return a monoid that finds the smallest info (by compareTo), null for
+	 * 			no items; null info is skipped
+	 */
+	static Monoid<String> minInfo() {
+		return new Monoid<String>() {
+			public String identity() {
+				return null;
+			}
+
+			public String lift(int key, String info) {
+				return info;
+			}
+
+			public String combine(String left, String right) {
+				if (left == null || right == null) {
+					return left == null ? right : left;
+				}
+				return left.compareTo(right) <= 0 ? left : right;
+			}
+		};
+	}
+
+	/**
+	 * @return a monoid that finds the largest info (by compareTo), null for
+	 * 			no items; null info is skipped
+	 */
+	static Monoid<String> maxInfo() {
+		return new Monoid<String>() {
+			public String identity() {
+				return null;
+			}
+
+			public String lift(int key, String info) {
+				return info;
+			}
+
+			public String combine(String left, String right) {
+				if (left == null || right == null) {
+					return left == null ? right : left;
+				}
+				return left.compareTo(right) >= 0 ? left : right;
+			}
+		};
+	}
+}
@@ -0,0 +1,94 @@
+package dataStructures;
+
+/**
+ *
+ * NodePool
+ *
+ * A free list of WAVLNodes, for trees that insert about as many keys as they
+ * delete. A tree with a pool gives it the nodes it deletes, and takes its new
+ * nodes from it, so the nodes are reused instead of being left to the garbage
+ * collector. The free nodes are linked through their parent pointers, so the
+ * pool allocates nothing of its own.
+ * At most capacity nodes are kept; the rest are left to the garbage collector.
+ * Only plain WAVLNodes are kept, not nodes of subclasses.
+ * A pool can be shared by many trees (see WAVLForest), but, like the trees,
+ * it isn't thread-safe.
+ *
+ */
+public class NodePool {
+	private final int capacity;
+	private WAVLTree.WAVLNode free; // the first free node, null if there are none
+	private int size; // the number of free nodes
+
+	/**
+	 * Constructs an empty pool.
+	 * @param capacity int the most free nodes to keep, at least 0
+	 */
+	public NodePool(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must be at least 0");
+		}
+		this.capacity = capacity;
+		this.free = null;
+		this.size = 0;
+	}
+
+	/**
+	 * public WAVLTree.WAVLNode acquire(int key, String value)
+	 *
+	 * Returns a node for a new item: a free node if there is one, otherwise a
+	 * new node.
+	 * @Complexity O(1)
+	 * @param key int key of the node
+	 * @param value String info of the node
+	 * @return WAVLTree.WAVLNode with rank 0, OUTER_NODE children and no parent
+	 */
+	public WAVLTree.WAVLNode acquire(int key, String value) {
+		if (free == null) {
+			return new WAVLTree.WAVLNode(key, value, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+		}
+		WAVLTree.WAVLNode x = free;
+		free = x.getParent();
+		size--;
+		x.reset(key, value);
+		return x;
+	}
+
+	/**
+	 * public void release(WAVLTree.WAVLNode node)
+	 *
+	 * Takes back a node that is no longer in any tree. Its info and links are
+	 * cleared at once, so it doesn't keep the rest of its old tree alive.
+	 * @Complexity O(1)
+	 * @param node WAVLTree.WAVLNode unlinked from its tree
+	 */
+	public void release(WAVLTree.WAVLNode node) {
+		if (size == capacity || node.getClass() != WAVLTree.WAVLNode.class || !node.isInnerNode()) {
+			return;
+		}
+		node.reset(0, null);
+		node.setParent(free);
+		free = node;
+		size++;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of free nodes in the pool
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * public int capacity()
+	 *
+	 * @Complexity O(1)
+	 * @return the most free nodes the pool keeps
+	 */
+	public int capacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,182 @@
+package dataStructures;
+
+/**
+ *
+ * PairWAVLTree
+ *
+ * A WAVL tree keyed by pairs of ints (first, second), in lexicographic order:
+ * by first, and by second among equal firsts. This fits keys like
+ * (tenant, timestamp), where the items of one first key form a range.
+ * A pair is packed into one long, first in the high half and second in the
+ * low half with its sign bit flipped, so comparing the packed longs compares
+ * the pairs lexicographically with a single primitive comparison. The items
+ * are kept in a LongWAVLTree under the packed keys.
+ *
+ */
+public class PairWAVLTree {
+	private final LongWAVLTree tree = new LongWAVLTree();
+
+	/**
+	 * Packs a pair into a long with the same order.
+	 * @Complexity O(1)
+	 * @param first int the major part of the key
+	 * @param second int the minor part of the key
+	 * @return the packed key
+	 */
+	static long pack(int first, int second) {
+		return ((long) first << 32) | ((second ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param key long a packed key
+	 * @return the first part of the key
+	 */
+	static int first(long key) {
+		return (int) (key >> 32);
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param key long a packed key
+	 * @return the second part of the key
+	 */
+	static int second(long key) {
+		return (int) key ^ Integer.MIN_VALUE;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the tree is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no items
+	 */
+	public boolean empty() {
+		return tree.empty();
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of items
+	 */
+	public int size() {
+		return tree.size();
+	}
+
+	/**
+	 * public String search(int first, int second)
+	 *
+	 * @Complexity O(log n)
+	 * @param first int first part of the key
+	 * @param second int second part of the key
+	 * @return the info of the key, or null if it isn't in the tree
+	 */
+	public String search(int first, int second) {
+		return tree.search(pack(first, second));
+	}
+
+	/**
+	 * public int insert(int first, int second, String i)
+	 *
+	 * @Complexity O(log n) WC, O(1) amortized rebalancing
+	 * @param first int first part of the key
+	 * @param second int second part of the key
+	 * @param i String info of the item
+	 * @return the number of rebalance operations, or -1 if the key is already in the tree
+	 */
+	public int insert(int first, int second, String i) {
+		return tree.insert(pack(first, second), i);
+	}
+
+	/**
+	 * public int delete(int first, int second)
+	 *
+	 * @Complexity O(log n) WC, O(1) amortized rebalancing
+	 * @param first int first part of the key
+	 * @param second int second part of the key
+	 * @return the number of rebalance operations, or -1 if the key isn't in the tree
+	 */
+	public int delete(int first, int second) {
+		return tree.delete(pack(first, second));
+	}
+
+	/**
+	 * public String select(int i)
+	 *
+	 * @Complexity O(log n)
+	 * @param i int index to search for, 1 to size()
+	 * @return the info of the i'th smallest key, or null if i is out of range
+	 */
+	public String select(int i) {
+		return tree.select(i);
+	}
+
+	/**
+	 * public int rank(int first, int second)
+	 *
+	 * @Complexity O(log n)
+	 * @param first int first part of the key
+	 * @param second int second part of the key
+	 * @return the number of keys smaller than (first, second)
+	 */
+	public int rank(int first, int second) {
+		return tree.rank(pack(first, second));
+	}
+
+	/**
+	 * public int countWithFirst(int first)
+	 *
+	 * Returns the number of keys whose first part is first, such as the
+	 * items of one tenant. They form a range of the packed keys.
+	 * @Complexity O(log n)
+	 * @param first int the first part
+	 * @return the number of keys (first, any second)
+	 */
+	public int countWithFirst(int first) {
+		int upTo = first == Integer.MAX_VALUE ? size() : tree.rank(pack(first + 1, Integer.MIN_VALUE));
+		return upTo - tree.rank(pack(first, Integer.MIN_VALUE));
+	}
+
+	/**
+	 * public int[] firstToArray()
+	 *
+	 * @Complexity O(n)
+	 * @return int[] the first parts of the keys, in the order of the keys
+	 */
+	public int[] firstToArray() {
+		long[] keys = tree.keysToArray();
+		int[] out = new int[keys.length];
+		for (int j = 0; j < keys.length; j++) {
+			out[j] = first(keys[j]);
+		}
+		return out;
+	}
+
+	/**
+	 * public int[] secondToArray()
+	 *
+	 * @Complexity O(n)
+	 * @return int[] the second parts of the keys, in the order of the keys
+	 */
+	public int[] secondToArray() {
+		long[] keys = tree.keysToArray();
+		int[] out = new int[keys.length];
+		for (int j = 0; j < keys.length; j++) {
+			out[j] = second(keys[j]);
+		}
+		return out;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * @Complexity O(n)
+	 * @return String[] the info of the items, in the order of their keys
+	 */
+	public String[] infoToArray() {
+		return tree.infoToArray();
+	}
+}
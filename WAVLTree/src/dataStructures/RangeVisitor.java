@@ -0,0 +1,19 @@
+package dataStructures;
+
+/**
+ *
+ * RangeVisitor
+ *
+ * What WAVLTree.forEachInRange does with each item of a range. The items are
+ * visited in key order, and the scan stops early when visit returns false.
+ *
+ */
+public interface RangeVisitor {
+
+	/**
+	 * @param key int key of the item
+	 * @param info String info of the item
+	 * @return true to go on to the next item, false to stop the scan
+	 */
+	boolean visit(int key, String info);
+}
@@ -0,0 +1,19 @@
+package dataStructures;
+
+/**
+ *
+ * Remapper
+ *
+ * How WAVLTree.computeIfPresent computes the new info of an item from its
+ * key and its current info. Returning null deletes the item.
+ *
+ */
+public interface Remapper {
+
+	/**
+	 * @param key int key of the item
+	 * @param info String current info of the item
+	 * @return the new info, or null to delete the item
+	 */
+	String apply(int key, String info);
+}
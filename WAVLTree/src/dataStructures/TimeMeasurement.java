@@ -0,0 +1,1474 @@
+package dataStructures;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+/**
+ * Wall-clock measurements of the tree operations, in the spirit of DocMeasurement.
+ * Each measure method runs its experiment a few times (the first rounds warm up
+ * the JIT) and prints the average time per operation of the last round.
+ *
+ * Run with: java dataStructures.TimeMeasurement [number of keys] [experiment]
+ * where experiment is one of the names in main, or "all" (the default).
+ */
+public class TimeMeasurement
+{
+	private final int ROUNDS = 5;
+	private int _n;
+	private int[] _keys;
+	private Object _retained; // keeps what is measured by usedHeap reachable
+
+	public TimeMeasurement(int n)
+	{
+		_n = n;
+		_keys = new int[n];
+		Random r = new Random(1);
+		for (int j = 0; j < n; j++)
+		{
+			_keys[j] = j;
+		}
+		// shuffle, so the keys are distinct and arrive in random order
+		for (int j = n - 1; j > 0; j--)
+		{
+			int other = r.nextInt(j + 1);
+			int tmp = _keys[j];
+			_keys[j] = _keys[other];
+			_keys[other] = tmp;
+		}
+	}
+
+	/**
+	 * Inserts all the keys and then deletes them, with and without
+	 * subtree-size maintenance.
+	 */
+	public void measureSizeMaintenance()
+	{
+		long[] sized = null, sizeFree = null;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			sized = insertDelete(new WAVLTree(true));
+			sizeFree = insertDelete(new WAVLTree(false));
+		}
+		System.out.println("items: " + _n
+				+ " sized insert: " + perOp(sized[0]) + " ns, delete: " + perOp(sized[1]) + " ns"
+				+ " | size-free insert: " + perOp(sizeFree[0]) + " ns, delete: " + perOp(sizeFree[1]) + " ns");
+	}
+
+	/**
+	 * Inserts all the keys and then deletes them, rebalancing bottom-up
+	 * (insert/delete) and top-down (insertTopDown/deleteTopDown).
+	 */
+	public void measureTopDown()
+	{
+		long[] bottomUp = null, topDown = null;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			bottomUp = insertDelete(new WAVLTree());
+			topDown = insertDeleteTopDown(new WAVLTree());
+		}
+		System.out.println("items: " + _n
+				+ " bottom-up insert: " + perOp(bottomUp[0]) + " ns, delete: " + perOp(bottomUp[1]) + " ns"
+				+ " | top-down insert: " + perOp(topDown[0]) + " ns, delete: " + perOp(topDown[1]) + " ns");
+	}
+
+	/**
+	 * Inserts all the keys and then deletes them, with and without
+	 * delete rebalancing. The NO_REBALANCE deletes include the rebuilds.
+	 */
+	public void measureDeleteWithoutRebalancing()
+	{
+		long[] rebalanced = null, relaxed = null;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			rebalanced = insertDelete(new WAVLTree(true, WAVLTree.DeleteMode.REBALANCE));
+			relaxed = insertDelete(new WAVLTree(true, WAVLTree.DeleteMode.NO_REBALANCE));
+		}
+		System.out.println("items: " + _n
+				+ " rebalancing delete: " + perOp(rebalanced[1]) + " ns"
+				+ " | delete without rebalancing: " + perOp(relaxed[1]) + " ns");
+	}
+
+	/**
+	 * Fills the tree, and then deletes and reinserts a tenth of the keys at a
+	 * time, with physical deletion and with tombstones.
+	 */
+	public void measureTombstones()
+	{
+		long rebalanced = 0, lazy = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			rebalanced = deleteReinsert(new WAVLTree(true, WAVLTree.DeleteMode.REBALANCE));
+			lazy = deleteReinsert(new WAVLTree(true, WAVLTree.DeleteMode.TOMBSTONE));
+		}
+		System.out.println("items: " + _n
+				+ " delete+reinsert: " + perOp(rebalanced) + " ns"
+				+ " | with tombstones: " + perOp(lazy) + " ns");
+	}
+
+	private long deleteReinsert(WAVLTree tree)
+	{
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		int batch = Math.max(1, _n / 10);
+		long start = System.nanoTime();
+		for (int from = 0; from < _n; from += batch)
+		{
+			int to = Math.min(_n, from + batch);
+			for (int j = from; j < to; j++)
+			{
+				tree.delete(_keys[j]);
+			}
+			for (int j = from; j < to; j++)
+			{
+				tree.insert(_keys[j], "");
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Inserts and then searches nearly sorted keys (each key is at most 8
+	 * places from its sorted position), from the root and from the finger.
+	 * The trees don't maintain sizes, so the finger operations don't climb
+	 * to the root for them.
+	 */
+	public void measureFinger()
+	{
+		int[] nearlySorted = new int[_n];
+		Random r = new Random(2);
+		for (int j = 0; j < _n; j++)
+		{
+			nearlySorted[j] = j;
+		}
+		for (int j = 0; j + 8 < _n; j += 8)
+		{
+			int other = j + r.nextInt(8);
+			int tmp = nearlySorted[j];
+			nearlySorted[j] = nearlySorted[other];
+			nearlySorted[other] = tmp;
+		}
+		long rootInsert = 0, rootSearch = 0, fingerInsert = 0, fingerSearch = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc(); // so the previous round's trees aren't collected on our time
+			WAVLTree tree = new WAVLTree(false);
+			long start = System.nanoTime();
+			for (int key : nearlySorted)
+			{
+				tree.insert(key, "");
+			}
+			long inserted = System.nanoTime();
+			for (int key : nearlySorted)
+			{
+				tree.search(key);
+			}
+			rootInsert = inserted - start;
+			rootSearch = System.nanoTime() - inserted;
+
+			tree = null;
+			System.gc();
+			tree = new WAVLTree(false);
+			start = System.nanoTime();
+			for (int key : nearlySorted)
+			{
+				tree.fingerInsert(key, "");
+			}
+			inserted = System.nanoTime();
+			for (int key : nearlySorted)
+			{
+				tree.fingerSearch(key);
+			}
+			fingerInsert = inserted - start;
+			fingerSearch = System.nanoTime() - inserted;
+		}
+		System.out.println("items: " + _n
+				+ " insert: " + perOp(rootInsert) + " ns, search: " + perOp(rootSearch) + " ns"
+				+ " | fingerInsert: " + perOp(fingerInsert) + " ns, fingerSearch: " + perOp(fingerSearch) + " ns");
+	}
+
+	/**
+	 * Looks up all the keys in random order, in batches of 256, with a loop of
+	 * search calls, with searchBatch, and with searchSortedBatch (the batches
+	 * are sorted beforehand, outside the timing). Run it with enough keys for
+	 * the tree to be larger than the last-level cache (1M keys are ~50MB).
+	 */
+	public void measureBatchSearch()
+	{
+		WAVLTree tree = new WAVLTree();
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		int batch = 256;
+		int[][] batches = new int[(_n + batch - 1) / batch][];
+		int[][] sortedBatches = new int[batches.length][];
+		Random r = new Random(3);
+		for (int b = 0; b < batches.length; b++)
+		{
+			batches[b] = new int[Math.min(batch, _n - b * batch)];
+			for (int j = 0; j < batches[b].length; j++)
+			{
+				batches[b][j] = _keys[r.nextInt(_n)];
+			}
+			sortedBatches[b] = batches[b].clone();
+			Arrays.sort(sortedBatches[b]);
+		}
+		String[] out = new String[batch];
+		long loop = 0, interleaved = 0, sorted = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (int[] keys : batches)
+			{
+				for (int j = 0; j < keys.length; j++)
+				{
+					out[j] = tree.search(keys[j]);
+				}
+			}
+			long looped = System.nanoTime();
+			for (int[] keys : batches)
+			{
+				tree.searchBatch(keys, out);
+			}
+			long batched = System.nanoTime();
+			for (int[] keys : sortedBatches)
+			{
+				tree.searchSortedBatch(keys, out);
+			}
+			loop = looped - start;
+			interleaved = batched - looped;
+			sorted = System.nanoTime() - batched;
+		}
+		System.out.println("items: " + _n
+				+ " search loop: " + perOp(loop) + " ns"
+				+ " | searchBatch: " + perOp(interleaved) + " ns"
+				+ " | searchSortedBatch: " + perOp(sorted) + " ns");
+	}
+
+	/**
+	 * Inserts and then deletes a sorted batch of 10K new keys (spread over the
+	 * whole key range) in a tree of all the keys, one by one and with
+	 * insertAll/deleteAll.
+	 */
+	public void measureBulkUpdates()
+	{
+		int m = Math.min(10000, _n);
+		int[] batch = new int[m];
+		String[] values = new String[m];
+		for (int j = 0; j < m; j++)
+		{
+			batch[j] = 2 * (int) ((long) j * _n / m) + 1; // odd, the tree's keys are even
+			values[j] = "";
+		}
+		long singleInsert = 0, singleDelete = 0, bulkInsert = 0, bulkDelete = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			WAVLTree tree = new WAVLTree();
+			for (int key : _keys)
+			{
+				tree.insert(2 * key, "");
+			}
+			long start = System.nanoTime();
+			for (int key : batch)
+			{
+				tree.insert(key, "");
+			}
+			long inserted = System.nanoTime();
+			for (int key : batch)
+			{
+				tree.delete(key);
+			}
+			long deleted = System.nanoTime();
+			tree.insertAll(batch, values);
+			long bulkInserted = System.nanoTime();
+			tree.deleteAll(batch);
+			long bulkDeleted = System.nanoTime();
+			singleInsert = inserted - start;
+			singleDelete = deleted - inserted;
+			bulkInsert = bulkInserted - deleted;
+			bulkDelete = bulkDeleted - bulkInserted;
+		}
+		System.out.println("items: " + _n + " batch: " + m
+				+ " insert: " + perElement(singleInsert, m) + " ns, delete: " + perElement(singleDelete, m) + " ns"
+				+ " | insertAll: " + perElement(bulkInsert, m) + " ns, deleteAll: " + perElement(bulkDelete, m) + " ns");
+	}
+
+	/**
+	 * Searches all the keys in random order in the tree, and in its frozen
+	 * (Eytzinger layout) snapshot.
+	 */
+	public void measureFrozen()
+	{
+		WAVLTree tree = new WAVLTree();
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		FrozenWAVLTree frozen = tree.freeze();
+		int[] queries = new int[_n];
+		Random r = new Random(4);
+		for (int j = 0; j < _n; j++)
+		{
+			queries[j] = r.nextInt(_n);
+		}
+		long pointers = 0, eytzinger = 0;
+		int found = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (int key : queries)
+			{
+				found += tree.search(key) == null ? 0 : 1;
+			}
+			long searched = System.nanoTime();
+			for (int key : queries)
+			{
+				found += frozen.search(key) == null ? 0 : 1;
+			}
+			pointers = searched - start;
+			eytzinger = System.nanoTime() - searched;
+		}
+		System.out.println("items: " + _n
+				+ " search: " + perOp(pointers) + " ns"
+				+ " | frozen search: " + perOp(eytzinger) + " ns"
+				+ " (found " + found + ")");
+	}
+
+	/**
+	 * Searches random keys in the tree, in its van Emde Boas layout on the heap,
+	 * and in the same layout memory-mapped from a file (first with the mapping
+	 * cold, then again), and prints the time and the page faults per lookup.
+	 * Java can't read the cache-miss counters; run under perf stat for those.
+	 */
+	public void measureVebLayout() throws IOException
+	{
+		WAVLTree tree = new WAVLTree();
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		VebLayout heap = VebLayout.export(tree);
+		File file = File.createTempFile("veb", ".layout");
+		file.deleteOnExit();
+		VebLayout.write(tree, file);
+		VebLayout mapped = VebLayout.map(file);
+		int[] queries = new int[_n];
+		Random r = new Random(5);
+		for (int j = 0; j < _n; j++)
+		{
+			queries[j] = r.nextInt(_n);
+		}
+		long[] faults = pageFaults();
+		long start = System.nanoTime();
+		for (int key : queries)
+		{
+			mapped.search(key);
+		}
+		long coldTime = System.nanoTime() - start;
+		long[] coldFaults = minus(pageFaults(), faults);
+		long pointers = 0, inHeap = 0, warm = 0;
+		long[] pointerFaults = null, heapFaults = null, warmFaults = null;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			faults = pageFaults();
+			start = System.nanoTime();
+			for (int key : queries)
+			{
+				tree.search(key);
+			}
+			pointers = System.nanoTime() - start;
+			pointerFaults = minus(pageFaults(), faults);
+
+			faults = pageFaults();
+			start = System.nanoTime();
+			for (int key : queries)
+			{
+				heap.search(key);
+			}
+			inHeap = System.nanoTime() - start;
+			heapFaults = minus(pageFaults(), faults);
+
+			faults = pageFaults();
+			start = System.nanoTime();
+			for (int key : queries)
+			{
+				mapped.search(key);
+			}
+			warm = System.nanoTime() - start;
+			warmFaults = minus(pageFaults(), faults);
+		}
+		System.out.println("items: " + _n
+				+ " search: " + perOp(pointers) + " ns " + faultsPerOp(pointerFaults)
+				+ " | veb heap: " + perOp(inHeap) + " ns " + faultsPerOp(heapFaults)
+				+ " | veb mapped, cold: " + perOp(coldTime) + " ns " + faultsPerOp(coldFaults)
+				+ ", warm: " + perOp(warm) + " ns " + faultsPerOp(warmFaults));
+	}
+
+	/**
+	 * Reads the minor and major page faults of this process so far, from
+	 * /proc/self/stat (fields 10 and 12). Zeros where it doesn't exist.
+	 */
+	private static long[] pageFaults()
+	{
+		try
+		{
+			String stat = new String(Files.readAllBytes(Paths.get("/proc/self/stat")), StandardCharsets.US_ASCII);
+			// the command name (field 2) is in parentheses and may contain spaces
+			String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+			return new long[] {Long.parseLong(fields[7]), Long.parseLong(fields[9])};
+		}
+		catch (IOException | RuntimeException e)
+		{
+			return new long[] {0, 0};
+		}
+	}
+
+	private static long[] minus(long[] after, long[] before)
+	{
+		return new long[] {after[0] - before[0], after[1] - before[1]};
+	}
+
+	private String faultsPerOp(long[] faults)
+	{
+		return "(faults/lookup minor " + (double) faults[0] / _n + ", major " + (double) faults[1] / _n + ")";
+	}
+
+	/**
+	 * Inserts all the keys, searches them in random order, and scans them in
+	 * order (keysToArray), in the plain tree and in block trees.
+	 */
+	public void measureBlocks()
+	{
+		long plainInsert = 0, plainSearch = 0, plainScan = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLTree tree = new WAVLTree();
+			long start = System.nanoTime();
+			for (int key : _keys)
+			{
+				tree.insert(key, "");
+			}
+			long inserted = System.nanoTime();
+			for (int key : _keys)
+			{
+				tree.search(key);
+			}
+			long searched = System.nanoTime();
+			tree.keysToArray();
+			plainInsert = inserted - start;
+			plainSearch = searched - inserted;
+			plainScan = System.nanoTime() - searched;
+		}
+		System.out.println("items: " + _n + " plain"
+				+ " insert: " + perOp(plainInsert) + " ns, search: " + perOp(plainSearch)
+				+ " ns, scan: " + perOp(plainScan) + " ns");
+		int[] sizes = {BlockWAVLTree.MIN_BLOCK_SIZE, 32, BlockWAVLTree.MAX_BLOCK_SIZE};
+		for (int blockSize : sizes)
+		{
+			long insert = 0, search = 0, scan = 0;
+			for (int round = 0; round < ROUNDS; round++)
+			{
+				System.gc();
+				BlockWAVLTree tree = new BlockWAVLTree(blockSize);
+				long start = System.nanoTime();
+				for (int key : _keys)
+				{
+					tree.insert(key, "");
+				}
+				long inserted = System.nanoTime();
+				for (int key : _keys)
+				{
+					tree.search(key);
+				}
+				long searched = System.nanoTime();
+				tree.keysToArray();
+				insert = inserted - start;
+				search = searched - inserted;
+				scan = System.nanoTime() - searched;
+			}
+			System.out.println("items: " + _n + " blocks of " + blockSize
+					+ " insert: " + perOp(insert) + " ns, search: " + perOp(search)
+					+ " ns, scan: " + perOp(scan) + " ns");
+		}
+	}
+
+	/**
+	 * Fills n / 20 collections with 20 keys each, and searches all the keys,
+	 * with WAVLTrees and with AdaptiveWAVLTrees. Prints the time per key and
+	 * the heap used per collection.
+	 */
+	public void measureSmallCollections()
+	{
+		int size = 20;
+		int collections = Math.max(1, _n / size);
+		long treeTime = 0, adaptiveTime = 0, treeBytes = 0, adaptiveBytes = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long before = usedHeap();
+			long start = System.nanoTime();
+			WAVLTree[] trees = new WAVLTree[collections];
+			for (int c = 0; c < collections; c++)
+			{
+				trees[c] = new WAVLTree();
+				for (int j = 0; j < size; j++)
+				{
+					trees[c].insert(_keys[(c * size + j) % _n], "");
+				}
+			}
+			for (int c = 0; c < collections; c++)
+			{
+				for (int j = 0; j < size; j++)
+				{
+					trees[c].search(_keys[(c * size + j) % _n]);
+				}
+			}
+			treeTime = System.nanoTime() - start;
+			_retained = trees;
+			treeBytes = (usedHeap() - before) / collections;
+			trees = null;
+
+			before = usedHeap();
+			start = System.nanoTime();
+			AdaptiveWAVLTree[] adaptive = new AdaptiveWAVLTree[collections];
+			for (int c = 0; c < collections; c++)
+			{
+				adaptive[c] = new AdaptiveWAVLTree();
+				for (int j = 0; j < size; j++)
+				{
+					adaptive[c].insert(_keys[(c * size + j) % _n], "");
+				}
+			}
+			for (int c = 0; c < collections; c++)
+			{
+				for (int j = 0; j < size; j++)
+				{
+					adaptive[c].search(_keys[(c * size + j) % _n]);
+				}
+			}
+			adaptiveTime = System.nanoTime() - start;
+			_retained = adaptive;
+			adaptiveBytes = (usedHeap() - before) / collections;
+			adaptive = null;
+			_retained = null;
+		}
+		System.out.println("collections: " + collections + " of " + size
+				+ " WAVLTree: " + perElement(treeTime, collections * size) + " ns/key, " + treeBytes + " bytes each"
+				+ " | AdaptiveWAVLTree: " + perElement(adaptiveTime, collections * size) + " ns/key, "
+				+ adaptiveBytes + " bytes each");
+	}
+
+	/**
+	 * Measures the heap used by an empty tree (with its slot in an array) and
+	 * by a node, and the time of
+	 * deleting and re-inserting the keys of n / 100 trees of 100 keys, with
+	 * plain trees and with the trees of a WAVLForest.
+	 */
+	public void measureForest()
+	{
+		int trees = Math.max(1, _n / 100);
+		long before = usedHeap();
+		WAVLTree[] empty = new WAVLTree[_n];
+		for (int c = 0; c < _n; c++)
+		{
+			empty[c] = new WAVLTree();
+		}
+		_retained = empty;
+		long treeBytes = (usedHeap() - before) / _n;
+		empty = null;
+		_retained = null;
+		before = usedHeap();
+		WAVLTree tree = new WAVLTree();
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		_retained = tree;
+		long nodeBytes = (usedHeap() - before) / _n;
+		tree = null;
+		_retained = null;
+		System.out.println("empty tree: " + treeBytes + " bytes, node: " + nodeBytes + " bytes");
+
+		long plainTime = 0, forestTime = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			WAVLTree[] plain = new WAVLTree[trees];
+			WAVLForest forest = new WAVLForest();
+			WAVLTree[] pooled = new WAVLTree[trees];
+			for (int c = 0; c < trees; c++)
+			{
+				plain[c] = new WAVLTree();
+				pooled[c] = forest.newTree();
+			}
+			System.gc();
+			plainTime = churn(plain);
+			System.gc();
+			forestTime = churn(pooled);
+		}
+		System.out.println("trees: " + trees + " of 100, delete + insert"
+				+ " plain: " + perElement(plainTime, _n) + " ns/key"
+				+ " | forest: " + perElement(forestTime, _n) + " ns/key");
+	}
+
+	/**
+	 * Fills every tree with 100 of the keys, then deletes and re-inserts each
+	 * key (in a tree chosen by the key), so nodes are discarded and allocated
+	 * at the same rate.
+	 * @return the time of the deletions and insertions, in ns
+	 */
+	private long churn(WAVLTree[] trees)
+	{
+		for (int j = 0; j < _n; j++)
+		{
+			trees[j % trees.length].insert(_keys[j], "");
+		}
+		long start = System.nanoTime();
+		for (int j = 0; j < _n; j++)
+		{
+			WAVLTree tree = trees[j % trees.length];
+			tree.delete(_keys[j]);
+			tree.insert(_keys[j], "");
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Deletes and re-inserts every key 5 times, in a tree of n keys with and
+	 * without a node pool, and prints the time per key with the number of
+	 * collections and the time spent in them (run with -Xlog:gc, or
+	 * -verbose:gc on Java 8, to see each collection).
+	 */
+	public void measureNodePool()
+	{
+		int passes = 5;
+		int[] capacities = {0, 1024};
+		for (int capacity : capacities)
+		{
+			WAVLTree tree = capacity == 0 ? new WAVLTree() : new WAVLTree(capacity);
+			for (int key : _keys)
+			{
+				tree.insert(key, "");
+			}
+			System.gc();
+			long[] gcBefore = collections();
+			long start = System.nanoTime();
+			for (int pass = 0; pass < passes; pass++)
+			{
+				for (int key : _keys)
+				{
+					tree.delete(key);
+					tree.insert(key, "");
+				}
+			}
+			long time = System.nanoTime() - start;
+			long[] gcAfter = collections();
+			System.out.println("items: " + _n + " pool: " + capacity
+					+ " delete + insert: " + perElement(time, passes * _n) + " ns/key, collections: "
+					+ (gcAfter[0] - gcBefore[0]) + ", in collections: " + (gcAfter[1] - gcBefore[1]) + " ms");
+		}
+	}
+
+	/**
+	 * Stores the dense keys 0..n-1 in a WAVLTree and in a BitmapWAVLSet, and
+	 * prints the heap used per key, the time of a search per key, and the time
+	 * per key of scanning the whole range.
+	 */
+	public void measureBitmapSet()
+	{
+		long before = usedHeap();
+		WAVLTree tree = new WAVLTree();
+		for (int key : _keys)
+		{
+			tree.insert(key, null);
+		}
+		_retained = tree;
+		long treeBytes = (usedHeap() - before) / _n;
+		_retained = null;
+		before = usedHeap();
+		BitmapWAVLSet set = new BitmapWAVLSet();
+		for (int key : _keys)
+		{
+			set.add(key);
+		}
+		_retained = set;
+		double setBytes = (double) (usedHeap() - before) / _n;
+		_retained = null;
+
+		long treeSearch = 0, treeScan = 0, setSearch = 0, setScan = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (int key : _keys)
+			{
+				tree.search(key);
+			}
+			long searched = System.nanoTime();
+			tree.keysToArray();
+			treeSearch = searched - start;
+			treeScan = System.nanoTime() - searched;
+
+			start = System.nanoTime();
+			for (int key : _keys)
+			{
+				set.contains(key);
+			}
+			searched = System.nanoTime();
+			set.keysInRange(0, _n - 1);
+			setSearch = searched - start;
+			setScan = System.nanoTime() - searched;
+		}
+		System.out.println("dense keys: " + _n
+				+ " WAVLTree: " + treeBytes + " bytes/key, search: " + perOp(treeSearch)
+				+ " ns, scan: " + perOp(treeScan) + " ns"
+				+ " | BitmapWAVLSet: " + String.format("%.2f", setBytes) + " bytes/key, search: "
+				+ perOp(setSearch) + " ns, scan: " + perOp(setScan) + " ns");
+	}
+
+	/**
+	 * Sums the keys of 1000 ranges of n / 100 keys each, by scanning
+	 * keysToArray (the only way before) and by AugmentedWAVLTree.aggregate,
+	 * and prints the time per range. Also prints the insertion time with and
+	 * without the augmentation.
+	 */
+	public void measureAggregates()
+	{
+		int ranges = 1000;
+		int width = Math.max(1, _n / 100);
+		long plainInsert = 0, augmentedInsert = 0, scan = 0, aggregate = 0;
+		long check = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLTree plain = new WAVLTree();
+			long start = System.nanoTime();
+			for (int key : _keys)
+			{
+				plain.insert(key, "");
+			}
+			plainInsert = System.nanoTime() - start;
+			System.gc();
+			AugmentedWAVLTree<Long> augmented = new AugmentedWAVLTree<Long>(Monoid.keySum());
+			start = System.nanoTime();
+			for (int key : _keys)
+			{
+				augmented.insert(key, "");
+			}
+			augmentedInsert = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int[] keys = plain.keysToArray();
+			for (int j = 0; j < ranges; j++)
+			{
+				int lo = _keys[j] % Math.max(1, _n - width);
+				long sum = 0;
+				for (int key : keys)
+				{
+					if (key >= lo && key < lo + width)
+					{
+						sum += key;
+					}
+				}
+				check += sum;
+			}
+			scan = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < ranges; j++)
+			{
+				int lo = _keys[j] % Math.max(1, _n - width);
+				check -= augmented.aggregate(lo, lo + width - 1);
+			}
+			aggregate = System.nanoTime() - start;
+		}
+		System.out.println("items: " + _n + " insert plain: " + perOp(plainInsert)
+				+ " ns, augmented: " + perOp(augmentedInsert) + " ns"
+				+ " | sum of " + width + " keys, scan: " + perElement(scan, ranges)
+				+ " ns, aggregate: " + perElement(aggregate, ranges) + " ns"
+				+ (check == 0 ? "" : " (sums differ)"));
+	}
+
+	/**
+	 * Stores n intervals [key * 100, key * 100 + length), with lengths up to
+	 * 10000, and asks which of them contain 10000 points, with an
+	 * IntervalWAVLTree and (for 100 of the points) with a scan of all the
+	 * intervals. Prints the time per query and the results per query.
+	 */
+	public void measureIntervals()
+	{
+		int queries = 10000;
+		int scans = 100;
+		Random r = new Random(2);
+		int[] starts = new int[_n];
+		int[] ends = new int[_n];
+		IntervalWAVLTree tree = new IntervalWAVLTree();
+		long start = System.nanoTime();
+		for (int j = 0; j < _n; j++)
+		{
+			starts[j] = _keys[j] * 100;
+			ends[j] = starts[j] + 1 + r.nextInt(10000);
+			tree.insert(starts[j], ends[j], "");
+		}
+		long insert = System.nanoTime() - start;
+		long query = 0, scan = 0, results = 0, scanned = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			results = 0;
+			scanned = 0;
+			start = System.nanoTime();
+			for (int q = 0; q < queries; q++)
+			{
+				for (IntervalWAVLTree.OverlapCursor c = tree.overlapping(_keys[q % _n] * 100 + 50); c.next(); )
+				{
+					results++;
+				}
+			}
+			query = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int q = 0; q < scans; q++)
+			{
+				int point = _keys[q % _n] * 100 + 50;
+				for (int j = 0; j < _n; j++)
+				{
+					if (starts[j] <= point && point < ends[j])
+					{
+						scanned++;
+					}
+				}
+			}
+			scan = System.nanoTime() - start;
+		}
+		System.out.println("intervals: " + _n + " insert: " + perOp(insert) + " ns"
+				+ " | point query: " + perElement(query, queries) + " ns, scan: " + perElement(scan, scans)
+				+ " ns, results per query: " + String.format("%.1f", (double) results / queries)
+				+ " (scan: " + String.format("%.1f", (double) scanned / scans) + ")");
+	}
+
+	/**
+	 * Builds a list of n items, then inserts and removes 10000 items at random
+	 * positions, with a WAVLSequence and with a java.util.ArrayList, and prints
+	 * the time per operation.
+	 */
+	public void measureSequence()
+	{
+		int updates = 10000;
+		long sequenceTime = 0, listTime = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLSequence sequence = new WAVLSequence();
+			java.util.ArrayList<String> list = new java.util.ArrayList<String>();
+			for (int j = 0; j < _n; j++)
+			{
+				sequence.add("");
+				list.add("");
+			}
+			long start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				sequence.insertAt(_keys[j % _n], "");
+				sequence.removeAt(_keys[(j + 1) % _n]);
+			}
+			sequenceTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				list.add(_keys[j % _n], "");
+				list.remove(_keys[(j + 1) % _n]);
+			}
+			listTime = System.nanoTime() - start;
+		}
+		System.out.println("items: " + _n + " insert + remove at random positions, WAVLSequence: "
+				+ perElement(sequenceTime, 2 * updates) + " ns | ArrayList: "
+				+ perElement(listTime, 2 * updates) + " ns");
+	}
+
+	/**
+	 * Gives n items random weights, then 1000 times changes one weight and
+	 * draws a weighted sample, with a WeightedWAVLTree and with a prefix-sum
+	 * array that is rebuilt after every change and binary searched, and prints
+	 * the time per change + draw.
+	 */
+	public void measureWeighted()
+	{
+		int updates = 1000;
+		long treeTime = 0, arrayTime = 0;
+		Random random = new Random(1);
+		long checksum = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WeightedWAVLTree tree = new WeightedWAVLTree();
+			double[] weights = new double[_n];
+			for (int key : _keys)
+			{
+				weights[key] = 1 + random.nextInt(100);
+				tree.insert(key, "", weights[key]);
+			}
+			long start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				tree.setWeight(_keys[j % _n], j % 100);
+				checksum += tree.sampleWeighted(random);
+			}
+			treeTime = System.nanoTime() - start;
+			double[] prefix = new double[_n];
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				weights[_keys[j % _n]] = j % 100;
+				double sum = 0;
+				for (int k = 0; k < _n; k++)
+				{
+					sum += weights[k];
+					prefix[k] = sum;
+				}
+				int found = Arrays.binarySearch(prefix, random.nextDouble() * sum);
+				checksum += found < 0 ? -found - 1 : found + 1;
+			}
+			arrayTime = System.nanoTime() - start;
+		}
+		System.out.println("items: " + _n + " change a weight + weighted sample, WeightedWAVLTree: "
+				+ perElement(treeTime, updates) + " ns | rebuilt prefix sums: "
+				+ perElement(arrayTime, updates) + " ns (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * Fills a tree with the even keys below 2n, then 1000 times inserts or
+	 * deletes a key and asks for the floor of a random key, with floorKey and
+	 * with keysToArray and a binary search after every change, and prints the
+	 * time per change + query.
+	 */
+	public void measureFloor()
+	{
+		int updates = 1000;
+		long treeTime = 0, arrayTime = 0;
+		Random random = new Random(1);
+		long checksum = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLTree tree = new WAVLTree();
+			for (int key : _keys)
+			{
+				tree.insert(2 * key, "");
+			}
+			long start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				int key = 2 * _keys[j % _n] + (j & 1); // odd keys are new, even ones are deleted
+				if ((j & 1) == 1)
+				{
+					tree.insert(key, "");
+				}
+				else
+				{
+					tree.delete(key);
+				}
+				checksum += tree.floorKey(random.nextInt(2 * _n), -1);
+			}
+			treeTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				int key = 2 * _keys[j % _n] + (j & 1);
+				if ((j & 1) == 1)
+				{
+					tree.delete(key); // undo the first loop, on the way
+				}
+				else
+				{
+					tree.insert(key, "");
+				}
+				int[] keys = tree.keysToArray();
+				int found = Arrays.binarySearch(keys, random.nextInt(2 * _n));
+				checksum += found >= 0 ? keys[found] : found == -1 ? -1 : keys[-found - 2];
+			}
+			arrayTime = System.nanoTime() - start;
+		}
+		System.out.println("keys: " + _n + " insert or delete + floor query, floorKey: "
+				+ perElement(treeTime, updates) + " ns | keysToArray + binary search: "
+				+ perElement(arrayTime, updates) + " ns (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * Fills a tree with the keys 0 to n - 1, then 100 times scans a window of
+	 * 1000 keys and expires the 1000 keys below a rising watermark: with
+	 * forEachInRange and deleteRange, and with keysToArray and a delete per
+	 * key. Prints the time per window.
+	 */
+	public void measureRanges()
+	{
+		int windows = 100, width = 1000;
+		long rangeTime = 0, arrayTime = 0;
+		long checksum = 0;
+		final long[] sum = new long[1];
+		RangeVisitor adder = new RangeVisitor() {
+			public boolean visit(int key, String info)
+			{
+				sum[0] += key;
+				return true;
+			}
+		};
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLTree ranged = new WAVLTree();
+			WAVLTree copied = new WAVLTree();
+			for (int key : _keys)
+			{
+				ranged.insert(key, "");
+				copied.insert(key, "");
+			}
+			long start = System.nanoTime();
+			for (int j = 0; j < windows; j++)
+			{
+				ranged.forEachInRange(_n / 2 + j * width, _n / 2 + (j + 1) * width - 1, adder);
+				checksum += ranged.deleteRange(Integer.MIN_VALUE, (j + 1) * width - 1);
+			}
+			rangeTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < windows; j++)
+			{
+				int[] keys = copied.keysToArray();
+				for (int key : keys)
+				{
+					if (_n / 2 + j * width <= key && key < _n / 2 + (j + 1) * width)
+					{
+						sum[0] += key;
+					}
+				}
+				for (int key : keys)
+				{
+					if (key >= (j + 1) * width)
+					{
+						break;
+					}
+					copied.delete(key);
+					checksum++;
+				}
+			}
+			arrayTime = System.nanoTime() - start;
+		}
+		System.out.println("keys: " + _n + " scan " + width + " keys + expire " + width
+				+ " keys, forEachInRange + deleteRange: " + perElement(rangeTime, windows)
+				+ " ns | keysToArray + delete: " + perElement(arrayTime, windows)
+				+ " ns (checksum " + (checksum + sum[0]) % 10 + ")");
+	}
+
+	/**
+	 * Uses a tree of n keys as a priority queue: 100000 times removes the
+	 * minimum and inserts a new key above it, with pollFirst, and with a walk
+	 * down the left spine (what min() does) and delete. Prints the time per
+	 * removal + insertion, for trees with and without subtree sizes.
+	 */
+	public void measureQueue()
+	{
+		int polls = 100000;
+		long[] pollTime = new long[2], searchTime = new long[2];
+		long checksum = 0;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			for (int sizes = 0; sizes < 2; sizes++)
+			{
+				System.gc();
+				WAVLTree polled = new WAVLTree(sizes == 1);
+				WAVLTree searched = new WAVLTree(sizes == 1);
+				for (int key : _keys)
+				{
+					polled.insert(key, "");
+					searched.insert(key, "");
+				}
+				long start = System.nanoTime();
+				for (int j = 0; j < polls; j++)
+				{
+					checksum += polled.pollFirst().getKey();
+					polled.insert(_n + _keys[j % _n] + j, "");
+				}
+				pollTime[sizes] = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int j = 0; j < polls; j++)
+				{
+					WAVLTree.WAVLNode x = searched.getRoot();
+					while (x.getLeft().isInnerNode())
+					{
+						x = x.getLeft();
+					}
+					checksum += x.getKey();
+					searched.delete(x.getKey());
+					searched.insert(_n + _keys[j % _n] + j, "");
+				}
+				searchTime[sizes] = System.nanoTime() - start;
+			}
+		}
+		System.out.println("keys: " + _n + " remove min + insert, pollFirst: " + perElement(pollTime[1], polls)
+				+ " ns (no sizes: " + perElement(pollTime[0], polls) + " ns) | min + delete: "
+				+ perElement(searchTime[1], polls) + " ns (no sizes: " + perElement(searchTime[0], polls)
+				+ " ns) (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * Updates the info of existing keys of a tree of n keys 100000 times:
+	 * with put, and with search, delete and insert. Then counts the keys of
+	 * a stream of 100000 keys with merge, and with search and insert or
+	 * delete + insert. Prints the time per update.
+	 */
+	public void measureUpserts()
+	{
+		int updates = 100000;
+		long putTime = 0, replaceTime = 0, mergeTime = 0, countTime = 0;
+		long checksum = 0;
+		BinaryOperator<String> increment = new BinaryOperator<String>() {
+			public String apply(String old, String one)
+			{
+				return old.length() < 8 ? old + one : one;
+			}
+		};
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			System.gc();
+			WAVLTree put = new WAVLTree();
+			WAVLTree replaced = new WAVLTree();
+			for (int key : _keys)
+			{
+				put.insert(key, "");
+				replaced.insert(key, "");
+			}
+			long start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				if (put.put(_keys[j % _n], "v") != null)
+				{
+					checksum++;
+				}
+			}
+			putTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				if (replaced.search(_keys[j % _n]) != null)
+				{
+					checksum++;
+					replaced.delete(_keys[j % _n]);
+				}
+				replaced.insert(_keys[j % _n], "v");
+			}
+			replaceTime = System.nanoTime() - start;
+			WAVLTree merged = new WAVLTree();
+			WAVLTree counted = new WAVLTree();
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				checksum += merged.merge(_keys[j % 1000], "x", increment).length();
+			}
+			mergeTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int j = 0; j < updates; j++)
+			{
+				String old = counted.search(_keys[j % 1000]);
+				String now = old == null ? "x" : increment.apply(old, "x");
+				if (old != null)
+				{
+					counted.delete(_keys[j % 1000]);
+				}
+				counted.insert(_keys[j % 1000], now);
+				checksum += now.length();
+			}
+			countTime = System.nanoTime() - start;
+		}
+		System.out.println("keys: " + _n + " update existing keys, put: " + perElement(putTime, updates)
+				+ " ns | search + delete + insert: " + perElement(replaceTime, updates)
+				+ " ns || count 1000 keys, merge: " + perElement(mergeTime, updates)
+				+ " ns | search + delete + insert: " + perElement(countTime, updates)
+				+ " ns (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * Adds n keys drawn from 1000 distinct keys to a WAVLMultiset, and to a
+	 * java.util.TreeMap of counts, and prints the time per add, the time of
+	 * a rank query, and the heap the multiset takes.
+	 */
+	public void measureMultiset()
+	{
+		long addTime = 0, mapTime = 0, rankTime = 0, bytes = 0;
+		long checksum = 0;
+		int queries = 100000;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long before = usedHeap();
+			WAVLMultiset multiset = new WAVLMultiset();
+			long start = System.nanoTime();
+			for (int key : _keys)
+			{
+				multiset.add(key % 1000);
+			}
+			addTime = System.nanoTime() - start;
+			_retained = multiset;
+			bytes = usedHeap() - before;
+			_retained = null;
+			start = System.nanoTime();
+			for (int j = 0; j < queries; j++)
+			{
+				checksum += multiset.rank(_keys[j % _n] % 1000);
+			}
+			rankTime = System.nanoTime() - start;
+			java.util.TreeMap<Integer, Integer> counts = new java.util.TreeMap<Integer, Integer>();
+			start = System.nanoTime();
+			for (int key : _keys)
+			{
+				counts.merge(key % 1000, 1, Integer::sum);
+			}
+			mapTime = System.nanoTime() - start;
+			checksum += counts.size();
+		}
+		System.out.println("adds: " + _n + " of 1000 keys, WAVLMultiset: " + perOp(addTime)
+				+ " ns | TreeMap counts: " + perOp(mapTime) + " ns | rank: " + perElement(rankTime, queries)
+				+ " ns | multiset heap: " + bytes + " bytes (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * Inserts the keys, spread over the long range, into a LongWAVLTree and a
+	 * java.util.TreeMap with Long keys, searches them all, and prints the time
+	 * per insert and search of each, with a WAVLTree of the same keys as ints
+	 * for reference.
+	 */
+	public void measureLongKeys()
+	{
+		long longInsert = 0, longSearch = 0, mapInsert = 0, mapSearch = 0, intInsert = 0, intSearch = 0;
+		long checksum = 0;
+		long[] keys = new long[_n];
+		for (int j = 0; j < _n; j++)
+		{
+			keys[j] = (long) _keys[j] << 32 | 0xABCDL; // keeps the order of _keys
+		}
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			LongWAVLTree tree = new LongWAVLTree();
+			long start = System.nanoTime();
+			for (long key : keys)
+			{
+				tree.insert(key, "");
+			}
+			longInsert = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (long key : keys)
+			{
+				if (tree.search(key) != null)
+				{
+					checksum++;
+				}
+			}
+			longSearch = System.nanoTime() - start;
+			java.util.TreeMap<Long, String> map = new java.util.TreeMap<Long, String>();
+			start = System.nanoTime();
+			for (long key : keys)
+			{
+				map.put(key, "");
+			}
+			mapInsert = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (long key : keys)
+			{
+				if (map.get(key) != null)
+				{
+					checksum++;
+				}
+			}
+			mapSearch = System.nanoTime() - start;
+			WAVLTree ints = new WAVLTree();
+			start = System.nanoTime();
+			for (int key : _keys)
+			{
+				ints.insert(key, "");
+			}
+			intInsert = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int key : _keys)
+			{
+				if (ints.search(key) != null)
+				{
+					checksum++;
+				}
+			}
+			intSearch = System.nanoTime() - start;
+		}
+		System.out.println("long keys: " + _n + " LongWAVLTree insert: " + perOp(longInsert) + " ns, search: "
+				+ perOp(longSearch) + " ns | TreeMap<Long> insert: " + perOp(mapInsert) + " ns, search: "
+				+ perOp(mapSearch) + " ns | WAVLTree int keys insert: " + perOp(intInsert) + " ns, search: "
+				+ perOp(intSearch) + " ns (checksum " + checksum % 10 + ")");
+	}
+
+	/**
+	 * @return the number of garbage collections so far, and the time they took in ms
+	 */
+	private static long[] collections()
+	{
+		long[] total = new long[2];
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			total[0] += Math.max(0, gc.getCollectionCount());
+			total[1] += Math.max(0, gc.getCollectionTime());
+		}
+		return total;
+	}
+
+	private static long usedHeap()
+	{
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private long[] insertDeleteTopDown(WAVLTree tree)
+	{
+		long start = System.nanoTime();
+		for (int key : _keys)
+		{
+			tree.insertTopDown(key, "");
+		}
+		long inserted = System.nanoTime();
+		for (int key : _keys)
+		{
+			tree.deleteTopDown(key);
+		}
+		long deleted = System.nanoTime();
+		return new long[] {inserted - start, deleted - inserted};
+	}
+
+	private long[] insertDelete(WAVLTree tree)
+	{
+		long start = System.nanoTime();
+		for (int key : _keys)
+		{
+			tree.insert(key, "");
+		}
+		long inserted = System.nanoTime();
+		for (int key : _keys)
+		{
+			tree.delete(key);
+		}
+		long deleted = System.nanoTime();
+		return new long[] {inserted - start, deleted - inserted};
+	}
+
+	private double perOp(long total)
+	{
+		return perElement(total, _n);
+	}
+
+	private double perElement(long total, int count)
+	{
+		return Math.round(10.0 * total / count) / 10.0;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		String which = args.length > 1 ? args[1] : "all";
+		TimeMeasurement m = new TimeMeasurement(n);
+		if (which.equals("all") || which.equals("sizes"))
+		{
+			m.measureSizeMaintenance();
+		}
+		if (which.equals("all") || which.equals("topdown"))
+		{
+			m.measureTopDown();
+		}
+		if (which.equals("all") || which.equals("norebalance"))
+		{
+			m.measureDeleteWithoutRebalancing();
+		}
+		if (which.equals("all") || which.equals("tombstone"))
+		{
+			m.measureTombstones();
+		}
+		if (which.equals("all") || which.equals("finger"))
+		{
+			m.measureFinger();
+		}
+		if (which.equals("all") || which.equals("batch"))
+		{
+			m.measureBatchSearch();
+		}
+		if (which.equals("all") || which.equals("bulk"))
+		{
+			m.measureBulkUpdates();
+		}
+		if (which.equals("all") || which.equals("frozen"))
+		{
+			m.measureFrozen();
+		}
+		if (which.equals("all") || which.equals("veb"))
+		{
+			m.measureVebLayout();
+		}
+		if (which.equals("all") || which.equals("blocks"))
+		{
+			m.measureBlocks();
+		}
+		if (which.equals("all") || which.equals("small"))
+		{
+			m.measureSmallCollections();
+		}
+		if (which.equals("all") || which.equals("forest"))
+		{
+			m.measureForest();
+		}
+		if (which.equals("all") || which.equals("pool"))
+		{
+			m.measureNodePool();
+		}
+		if (which.equals("all") || which.equals("bitmap"))
+		{
+			m.measureBitmapSet();
+		}
+		if (which.equals("all") || which.equals("aggregate"))
+		{
+			m.measureAggregates();
+		}
+		if (which.equals("all") || which.equals("intervals"))
+		{
+			m.measureIntervals();
+		}
+		if (which.equals("all") || which.equals("sequence"))
+		{
+			m.measureSequence();
+		}
+		if (which.equals("all") || which.equals("weighted"))
+		{
+			m.measureWeighted();
+		}
+		if (which.equals("all") || which.equals("floor"))
+		{
+			m.measureFloor();
+		}
+		if (which.equals("all") || which.equals("ranges"))
+		{
+			m.measureRanges();
+		}
+		if (which.equals("all") || which.equals("queue"))
+		{
+			m.measureQueue();
+		}
+		if (which.equals("all") || which.equals("upserts"))
+		{
+			m.measureUpserts();
+		}
+		if (which.equals("all") || which.equals("multiset"))
+		{
+			m.measureMultiset();
+		}
+		if (which.equals("all") || which.equals("longkeys"))
+		{
+			m.measureLongKeys();
+		}
+	}
+}
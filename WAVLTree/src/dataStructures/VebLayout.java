@@ -0,0 +1,240 @@
+package dataStructures;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * VebLayout
+ *
+ * A read-only copy of a WAVLTree's live items in van Emde Boas order, which
+ * is cache-oblivious: the tree of height h is cut at height h/2, the top half
+ * is laid out first and then each of the bottom trees, every part recursively.
+ * A search path then crosses O(log_B n) blocks for any block size B - cache
+ * lines, pages or disk blocks - without knowing B.
+ *
+ * The shape is the complete binary search tree over the sorted keys (as in
+ * FrozenWAVLTree), so the children aren't at computable indices, and every
+ * node keeps its children's positions. The layout is one byte buffer, which
+ * is either on the heap (export) or a memory-mapped file (write, then map):
+ * 		int n
+ * 		n nodes of 4 ints each: key, left child, right child (position, or -1),
+ * 			index of the info (or -1 if the info is null)
+ * 		n + 1 ints, the offsets of the info strings in the bytes below
+ * 		the info strings, UTF-8 encoded (null info takes no bytes)
+ * The root is at position 0.
+ *
+ */
+public class VebLayout {
+	private static final int NODE_INTS = 4;
+	private static final int NO_CHILD = -1;
+	private static final int NO_INFO = -1;
+	private final ByteBuffer buffer;
+	private final int n;
+	private final int offsetsStart; // byte index of the info offsets
+	private final int stringsStart; // byte index of the info strings
+
+	/**
+	 * @param buffer ByteBuffer with a layout, as described in the class doc
+	 */
+	private VebLayout(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.n = buffer.getInt(0);
+		this.offsetsStart = 4 + 4 * NODE_INTS * n;
+		this.stringsStart = offsetsStart + 4 * (n + 1);
+	}
+
+	/**
+	 * public static VebLayout export(WAVLTree tree)
+	 *
+	 * Lays out the tree's live items in van Emde Boas order, on the heap.
+	 * @Complexity O(n)
+	 * @param tree WAVLTree to copy
+	 * @return VebLayout with the same keys and info
+	 */
+	public static VebLayout export(WAVLTree tree) {
+		return new VebLayout(ByteBuffer.wrap(layout(tree.keysToArray(), tree.infoToArray())));
+	}
+
+	/**
+	 * public static void write(WAVLTree tree, File file)
+	 *
+	 * Writes the tree's live items in van Emde Boas order to a file, for map.
+	 * @Complexity O(n)
+	 * @param tree WAVLTree to copy
+	 * @param file File to write (replaced if it exists)
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(WAVLTree tree, File file) throws IOException {
+		byte[] bytes = layout(tree.keysToArray(), tree.infoToArray());
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * public static VebLayout map(File file)
+	 *
+	 * Maps a file written by write. Pages are read from the file on the first
+	 * access, so a search only reads the pages on its path.
+	 * @Complexity O(1)
+	 * @param file File written by write
+	 * @return VebLayout over the mapped file
+	 * @throws IOException if the file can't be mapped
+	 */
+	public static VebLayout map(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			// the mapping stays valid after the channel is closed
+			return new VebLayout(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Builds the byte layout of the sorted items.
+	 * The complete tree is indexed in BFS order (root 1, children 2b and 2b+1),
+	 * its in-order ranks give each BFS index its item, and vebOrder gives each
+	 * BFS index its position.
+	 * @Complexity O(n)
+	 * @param keys int[] sorted keys
+	 * @param values String[] the info of each key
+	 * @return the layout bytes
+	 */
+	private static byte[] layout(int[] keys, String[] values) {
+		int n = keys.length;
+		if (n > (Integer.MAX_VALUE / 4 - 2) / (NODE_INTS + 1)) {
+			throw new IllegalArgumentException("too many keys for a single buffer: " + n);
+		}
+		int[] rank = new int[n + 1]; // rank[b] - the in-order rank of BFS index b
+		inOrderRanks(1, n, rank, new int[1]);
+		int[] position = new int[n + 1]; // position[b] - the vEB position of BFS index b
+		vebOrder(1, height(n), n, position, new int[1]);
+
+		byte[][] strings = new byte[n][];
+		int stringBytes = 0;
+		for (int j = 0; j < n; j++) {
+			strings[j] = (values[j] == null ? "" : values[j]).getBytes(StandardCharsets.UTF_8);
+			stringBytes += strings[j].length;
+		}
+		int offsetsStart = 4 + 4 * NODE_INTS * n;
+		int stringsStart = offsetsStart + 4 * (n + 1);
+		if ((long) stringsStart + stringBytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("the info is too large for a single buffer");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(stringsStart + stringBytes);
+		buffer.putInt(0, n);
+		for (int b = 1; b <= n; b++) {
+			int at = 4 + 4 * NODE_INTS * position[b];
+			buffer.putInt(at, keys[rank[b]]);
+			buffer.putInt(at + 4, 2 * b <= n ? position[2 * b] : NO_CHILD);
+			buffer.putInt(at + 8, 2 * b + 1 <= n ? position[2 * b + 1] : NO_CHILD);
+			buffer.putInt(at + 12, values[rank[b]] == null ? NO_INFO : rank[b]);
+		}
+		int offset = 0;
+		for (int j = 0; j < n; j++) {
+			buffer.putInt(offsetsStart + 4 * j, offset);
+			System.arraycopy(strings[j], 0, buffer.array(), stringsStart + offset, strings[j].length);
+			offset += strings[j].length;
+		}
+		buffer.putInt(offsetsStart + 4 * n, offset);
+		return buffer.array();
+	}
+
+	/**
+	 * Numbers the nodes of the BFS subtree of b in-order, from next[0].
+	 * @Complexity O(size of the subtree), recursion depth O(log n)
+	 */
+	private static void inOrderRanks(int b, int n, int[] rank, int[] next) {
+		if (b > n) {
+			return;
+		}
+		inOrderRanks(2 * b, n, rank, next);
+		rank[b] = next[0]++;
+		inOrderRanks(2 * b + 1, n, rank, next);
+	}
+
+	/**
+	 * Gives the nodes of the BFS subtree of b, down to height levels, their
+	 * van Emde Boas positions from next[0]: the top floor(height/2) levels
+	 * first, then each bottom subtree from left to right, recursively.
+	 * @Complexity O(size of the subtree)
+	 */
+	private static void vebOrder(int b, int height, int n, int[] position, int[] next) {
+		if (b > n) {
+			return;
+		}
+		if (height == 1) {
+			position[b] = next[0]++;
+			return;
+		}
+		int top = height / 2;
+		vebOrder(b, top, n, position, next);
+		int first = b << top; // the bottom subtrees' roots are first..first + 2^top - 1
+		for (int j = 0; j < (1 << top); j++) {
+			vebOrder(first + j, height - top, n, position, next);
+		}
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @return the number of levels in a complete tree of n nodes
+	 */
+	private static int height(int n) {
+		return 32 - Integer.numberOfLeadingZeros(n);
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of keys
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * returns the info of the item with key k if it exists, otherwise null.
+	 * @Complexity O(log n), O(log_B n) blocks of any size B
+	 * @param k int key to search for
+	 * @return value of key k, or null if it doesn't exists
+	 */
+	public String search(int k) {
+		int pos = n == 0 ? NO_CHILD : 0;
+		while (pos != NO_CHILD) {
+			int at = 4 + 4 * NODE_INTS * pos;
+			int key = buffer.getInt(at);
+			if (k == key) {
+				return info(buffer.getInt(at + 12));
+			}
+			pos = buffer.getInt(k < key ? at + 4 : at + 8);
+		}
+		return null;
+	}
+
+	/**
+	 * Decodes the j'th info string.
+	 * @Complexity O(length of the string)
+	 * @param j int the in-order index of the item, or NO_INFO
+	 * @return the info, null for NO_INFO
+	 */
+	private String info(int j) {
+		if (j == NO_INFO) {
+			return null;
+		}
+		int from = buffer.getInt(offsetsStart + 4 * j);
+		int to = buffer.getInt(offsetsStart + 4 * j + 4);
+		byte[] bytes = new byte[to - from];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(stringsStart + from + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
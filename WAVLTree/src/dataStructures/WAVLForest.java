@@ -0,0 +1,55 @@
+package dataStructures;
+
+/**
+ *
+ * WAVLForest
+ *
+ * Many small WAVLTrees that share one NodePool, for deployments with millions
+ * of trees. All trees already share the static OUTER_NODE, and WAVLNode holds
+ * no reference to its tree, so what the forest adds is the pool: a node
+ * deleted from one tree is reused by the next insertion into any tree of the
+ * forest, and the free nodes are kept once for the forest, not per tree.
+ * Like the trees, a forest isn't thread-safe.
+ *
+ */
+public class WAVLForest {
+	public static final int DEFAULT_POOL_CAPACITY = 1 << 16;
+	private final NodePool pool;
+
+	/**
+	 * Constructs a forest whose pool keeps up to DEFAULT_POOL_CAPACITY free nodes.
+	 */
+	public WAVLForest() {
+		this(DEFAULT_POOL_CAPACITY);
+	}
+
+	/**
+	 * Constructs a forest.
+	 * @param poolCapacity int the most free nodes the shared pool keeps
+	 */
+	public WAVLForest(int poolCapacity) {
+		this.pool = new NodePool(poolCapacity);
+	}
+
+	/**
+	 * public WAVLTree newTree()
+	 *
+	 * Returns a new empty tree that allocates its nodes from the forest's pool,
+	 * and gives them back to it when they are deleted.
+	 * @Complexity O(1)
+	 * @return an empty WAVLTree of this forest
+	 */
+	public WAVLTree newTree() {
+		return new WAVLTree(pool);
+	}
+
+	/**
+	 * public NodePool pool()
+	 *
+	 * @Complexity O(1)
+	 * @return the pool shared by the trees of this forest
+	 */
+	public NodePool pool() {
+		return pool;
+	}
+}
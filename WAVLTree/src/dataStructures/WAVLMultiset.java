@@ -0,0 +1,281 @@
+package dataStructures;
+
+/**
+ *
+ * WAVLMultiset
+ *
+ * A multiset of int keys: a key may be added many times. Every node of the
+ * WAVL tree holds one key and the number of times it occurs, and subtree
+ * sizes count the occurrences (through selfSize), so size, rank and select
+ * count a key as many times as it occurs.
+ * Adding a key that is already there only finds its node and increments
+ * the count; the tree gets a new node, and is rebalanced, only for a new key.
+ * Likewise, a node is deleted only when its count drops to 0.
+ *
+ */
+public class WAVLMultiset {
+	private final Index index = new Index();
+	private int distinct; // the number of nodes
+
+	/**
+	 * The WAVL tree of the distinct keys.
+	 */
+	private static class Index extends WAVLTree {
+
+		/**
+		 * @Complexity O(log d), d the number of distinct keys
+		 * @param k int key to look for
+		 * @return the node of k, or null if k isn't in the multiset
+		 */
+		Counted nodeOf(int k) {
+			WAVLNode x = treeSearch(top(), k);
+			return x.isInnerNode() ? (Counted) x : null;
+		}
+	}
+
+	/**
+	 * A node of a key, with the number of times it occurs.
+	 */
+	private static class Counted extends WAVLTree.WAVLNode {
+		private int count;
+
+		/**
+		 * @param k int the key
+		 */
+		Counted(int k) {
+			super(k, null, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+		}
+
+		@Override
+		protected int selfSize() {
+			return count;
+		}
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the multiset is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no keys
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of keys, counting every occurrence.
+	 * @Complexity O(1), the root's size counts all the occurrences
+	 * @return the number of occurrences
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public int distinct()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of different keys
+	 */
+	public int distinct() {
+		return distinct;
+	}
+
+	/**
+	 * public int count(int k)
+	 *
+	 * @Complexity O(log d), d the number of distinct keys
+	 * @param k int any key
+	 * @return the number of times k occurs, 0 if it isn't in the multiset
+	 */
+	public int count(int k) {
+		Counted x = index.nodeOf(k);
+		return x == null ? 0 : x.count;
+	}
+
+	/**
+	 * public int add(int k)
+	 *
+	 * Adds an occurrence of k.
+	 * @Complexity O(log d), rebalancing only if k is new
+	 * @param k int key to add
+	 * @return the number of times k occurred before
+	 */
+	public int add(int k) {
+		return add(k, 1);
+	}
+
+	/**
+	 * public int add(int k, int times)
+	 *
+	 * Adds k times times. A node is added to the tree only if k is new.
+	 * @Complexity O(log d), rebalancing only if k is new
+	 * @param k int key to add
+	 * @param times int the number of occurrences to add, 0 or more
+	 * @return the number of times k occurred before
+	 * @throws IllegalArgumentException if times is negative, or the size would
+	 * 				pass Integer.MAX_VALUE
+	 */
+	public int add(int k, int times) {
+		if (times < 0 || times > Integer.MAX_VALUE - size()) {
+			throw new IllegalArgumentException("can't add " + times + " occurrences to a multiset of " + size());
+		}
+		Counted x = index.nodeOf(k);
+		if (times == 0) {
+			return x == null ? 0 : x.count;
+		}
+		if (x == null) {
+			x = new Counted(k);
+			index.insertNode(x);
+			distinct++;
+		}
+		int before = x.count;
+		x.count += times;
+		index.updateSizeUp(x);
+		return before;
+	}
+
+	/**
+	 * public int remove(int k)
+	 *
+	 * Removes an occurrence of k, if there is one.
+	 * @Complexity O(log d), rebalancing only if it was the last occurrence
+	 * @param k int key to remove
+	 * @return the number of times k occurred before
+	 */
+	public int remove(int k) {
+		return remove(k, 1);
+	}
+
+	/**
+	 * public int remove(int k, int times)
+	 *
+	 * Removes up to times occurrences of k. The node of k is deleted from the
+	 * tree when none are left.
+	 * @Complexity O(log d), rebalancing only if the last occurrence is removed
+	 * @param k int key to remove
+	 * @param times int the number of occurrences to remove, 0 or more
+	 * @return the number of times k occurred before
+	 * @throws IllegalArgumentException if times is negative
+	 */
+	public int remove(int k, int times) {
+		if (times < 0) {
+			throw new IllegalArgumentException("can't remove " + times + " occurrences");
+		}
+		Counted x = index.nodeOf(k);
+		if (x == null || times == 0) {
+			return x == null ? 0 : x.count;
+		}
+		int before = x.count;
+		x.count -= Math.min(times, before);
+		index.updateSizeUp(x);
+		if (x.count == 0) {
+			index.delete(k);
+			distinct--;
+		}
+		return before;
+	}
+
+	/**
+	 * public int rank(int k)
+	 *
+	 * Returns the number of occurrences of keys smaller than k.
+	 * @Complexity O(log d)
+	 * @param k int any key
+	 * @return the number of occurrences below k
+	 */
+	public int rank(int k) {
+		int below = 0;
+		WAVLTree.WAVLNode x = index.top();
+		while (x.isInnerNode()) {
+			if (k < x.getKey()) {
+				x = x.getLeft();
+			} else if (k > x.getKey()) {
+				below += x.getLeft().getSubtreeSize() + ((Counted) x).count;
+				x = x.getRight();
+			} else {
+				return below + x.getLeft().getSubtreeSize();
+			}
+		}
+		return below;
+	}
+
+	/**
+	 * public int select(int i)
+	 *
+	 * Returns the i'th smallest key (1-based), where a key that occurs c times
+	 * takes c places in the order.
+	 * @Complexity O(log d)
+	 * @param i int index to search for, 1 to size()
+	 * @return the i'th smallest key
+	 * @throws IllegalArgumentException if i is out of range
+	 */
+	public int select(int i) {
+		if (i < 1 || i > size()) {
+			throw new IllegalArgumentException("no " + i + "'th key in a multiset of " + size());
+		}
+		int rest = i - 1;
+		WAVLTree.WAVLNode x = index.getRoot();
+		while (true) {
+			int left = x.getLeft().getSubtreeSize();
+			int self = ((Counted) x).count;
+			if (rest < left) {
+				x = x.getLeft();
+			} else if (rest < left + self) {
+				return x.getKey();
+			} else {
+				rest -= left + self;
+				x = x.getRight();
+			}
+		}
+	}
+
+	/**
+	 * public int countInRange(int lo, int hi)
+	 *
+	 * Returns the number of occurrences of keys k with lo <= k <= hi.
+	 * @Complexity O(log d)
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return the number of occurrences in the range
+	 */
+	public int countInRange(int lo, int hi) {
+		if (lo > hi) {
+			return 0;
+		}
+		int upTo = hi == Integer.MAX_VALUE ? size() : rank(hi + 1);
+		return upTo - rank(lo);
+	}
+
+	/**
+	 * public int[] toArray()
+	 *
+	 * Returns the keys in ascending order, every key as many times as it occurs.
+	 * @Complexity O(size())
+	 * @return int[] the sorted keys, with repetitions
+	 */
+	public int[] toArray() {
+		int[] out = new int[size()];
+		collect(index.top(), out, 0);
+		return out;
+	}
+
+	/**
+	 * Copies the keys of the subtree of x into out, in order.
+	 * @Complexity O(occurrences in the subtree)
+	 * @return the number of keys in out
+	 */
+	private int collect(WAVLTree.WAVLNode x, int[] out, int m) {
+		if (!x.isInnerNode()) {
+			return m;
+		}
+		m = collect(x.getLeft(), out, m);
+		for (int j = ((Counted) x).count; j > 0; j--) {
+			out[m++] = x.getKey();
+		}
+		return collect(x.getRight(), out, m);
+	}
+}
@@ -0,0 +1,247 @@
+package dataStructures;
+
+/**
+ *
+ * WAVLSequence
+ *
+ * A list of Strings in a WAVL tree with no keys (a rope): the nodes are
+ * ordered only by their position, which is found from the subtree sizes,
+ * like select does. Every update is a split of the tree at a position and
+ * joins of the parts (the joins of insertAll and deleteAll), so inserting or
+ * removing in the middle of a large list is O(log n) instead of the O(n)
+ * shift of an ArrayList. split and concat cut and glue whole sequences in
+ * O(log n) as well.
+ * Positions are 0-based, as in java.util.List.
+ *
+ */
+public class WAVLSequence {
+	private final Index index = new Index();
+
+	/**
+	 * The tree of the items. The keys of its nodes are unused (0).
+	 */
+	private static class Index extends WAVLTree {
+
+		/**
+		 * Splits the detached subtree of x into the nodes before position i, the
+		 * node at i, and the nodes after it, with joins on the way up.
+		 * @Complexity O(log n)
+		 * @param x WAVLNode a detached subtree root, or OUTER_NODE
+		 * @param i int a position in the subtree, 0 to its size
+		 * @return {before, at (null if i is the size), after}, detached
+		 */
+		WAVLNode[] split(WAVLNode x, int i) {
+			if (!x.isInnerNode()) {
+				return new WAVLNode[] {OUTER_NODE, null, OUTER_NODE};
+			}
+			WAVLNode left = x.getLeft();
+			WAVLNode right = x.getRight();
+			int before = left.getSubtreeSize();
+			if (i == before) {
+				return new WAVLNode[] {left, x, right};
+			}
+			if (i < before) {
+				WAVLNode[] parts = split(left, i);
+				parts[2] = joinSubtrees(parts[2], x, right);
+				return parts;
+			}
+			WAVLNode[] parts = split(right, i - before - 1);
+			parts[0] = joinSubtrees(left, x, parts[0]);
+			return parts;
+		}
+
+		/**
+		 * Concatenates two detached subtrees. The last node of the first one
+		 * is split off, and becomes the middle node of a join.
+		 * @Complexity O(log n)
+		 * @return the root of the concatenation, detached
+		 */
+		WAVLNode concat(WAVLNode first, WAVLNode second) {
+			if (!first.isInnerNode()) {
+				return second;
+			}
+			if (!second.isInnerNode()) {
+				return first;
+			}
+			WAVLNode[] parts = split(first, first.getSubtreeSize() - 1);
+			return joinSubtrees(parts[0], parts[1], second);
+		}
+
+		/**
+		 * @Complexity O(log n)
+		 * @param i int a position, 0 to size() - 1
+		 * @return the node at position i
+		 */
+		WAVLNode nodeAt(int i) {
+			WAVLNode x = getRoot();
+			while (true) {
+				int before = x.getLeft().getSubtreeSize();
+				if (i < before) {
+					x = x.getLeft();
+				} else if (i == before) {
+					return x;
+				} else {
+					i -= before + 1;
+					x = x.getRight();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks a position.
+	 * @param i int the position
+	 * @param bound int the largest position allowed
+	 * @throws IndexOutOfBoundsException if i is out of 0..bound
+	 */
+	private static void checkPosition(int i, int bound) {
+		if (i < 0 || i > bound) {
+			throw new IndexOutOfBoundsException("position " + i + ", size " + (bound + 1));
+		}
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * returns true if and only if the sequence is empty
+	 * @Complexity O(1)
+	 * @return boolean true if there are no items
+	 */
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * @Complexity O(1)
+	 * @return the number of items
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * public String get(int i)
+	 *
+	 * @Complexity O(log n)
+	 * @param i int a position, 0 to size() - 1
+	 * @return the item at position i
+	 * @throws IndexOutOfBoundsException if i is out of range
+	 */
+	public String get(int i) {
+		checkPosition(i, size() - 1);
+		return index.nodeAt(i).getValue();
+	}
+
+	/**
+	 * public String set(int i, String v)
+	 *
+	 * Replaces the item at position i.
+	 * @Complexity O(log n)
+	 * @param i int a position, 0 to size() - 1
+	 * @param v String the new item
+	 * @return the item that was at position i
+	 * @throws IndexOutOfBoundsException if i is out of range
+	 */
+	public String set(int i, String v) {
+		checkPosition(i, size() - 1);
+		WAVLTree.WAVLNode x = index.nodeAt(i);
+		String old = x.getValue();
+		x.setValue(v);
+		return old;
+	}
+
+	/**
+	 * public void insertAt(int i, String v)
+	 *
+	 * Inserts v at position i, after the first i items.
+	 * @Complexity O(log n)
+	 * @param i int a position, 0 to size()
+	 * @param v String the item
+	 * @throws IndexOutOfBoundsException if i is out of range
+	 */
+	public void insertAt(int i, String v) {
+		checkPosition(i, size());
+		WAVLTree.WAVLNode x = new WAVLTree.WAVLNode(0, v, null, WAVLTree.OUTER_NODE, WAVLTree.OUTER_NODE);
+		WAVLTree.WAVLNode[] parts = index.split(index.top(), i);
+		WAVLTree.WAVLNode after = parts[2];
+		if (parts[1] != null) { // the old item at i goes after x
+			after = index.joinSubtrees(WAVLTree.OUTER_NODE, parts[1], after);
+		}
+		index.setJoinedRoot(index.joinSubtrees(parts[0], x, after));
+	}
+
+	/**
+	 * public void add(String v)
+	 *
+	 * Appends v at the end.
+	 * @Complexity O(log n)
+	 * @param v String the item
+	 */
+	public void add(String v) {
+		insertAt(size(), v);
+	}
+
+	/**
+	 * public String removeAt(int i)
+	 *
+	 * Removes the item at position i.
+	 * @Complexity O(log n)
+	 * @param i int a position, 0 to size() - 1
+	 * @return the removed item
+	 * @throws IndexOutOfBoundsException if i is out of range
+	 */
+	public String removeAt(int i) {
+		checkPosition(i, size() - 1);
+		WAVLTree.WAVLNode[] parts = index.split(index.top(), i);
+		index.setJoinedRoot(index.concat(parts[0], parts[2]));
+		return parts[1].getValue();
+	}
+
+	/**
+	 * public WAVLSequence split(int i)
+	 *
+	 * Cuts the sequence at position i: this sequence keeps the first i items,
+	 * and the rest are moved to the returned sequence.
+	 * @Complexity O(log n)
+	 * @param i int a position, 0 to size()
+	 * @return WAVLSequence with the items from position i on
+	 * @throws IndexOutOfBoundsException if i is out of range
+	 */
+	public WAVLSequence split(int i) {
+		checkPosition(i, size());
+		WAVLTree.WAVLNode[] parts = index.split(index.top(), i);
+		WAVLSequence rest = new WAVLSequence();
+		if (parts[1] != null) {
+			rest.index.setJoinedRoot(index.joinSubtrees(WAVLTree.OUTER_NODE, parts[1], parts[2]));
+		}
+		index.setJoinedRoot(parts[0]);
+		return rest;
+	}
+
+	/**
+	 * public void concat(WAVLSequence other)
+	 *
+	 * Appends the items of other (which is left empty) at the end.
+	 * @Complexity O(log n + log m), m the size of other
+	 * @param other WAVLSequence another sequence
+	 */
+	public void concat(WAVLSequence other) {
+		if (other == this) {
+			throw new IllegalArgumentException("can't concat a sequence to itself");
+		}
+		index.setJoinedRoot(index.concat(index.top(), other.index.top()));
+		other.index.setJoinedRoot(WAVLTree.OUTER_NODE);
+	}
+
+	/**
+	 * public String[] toArray()
+	 *
+	 * @Complexity O(n)
+	 * @return the items in order
+	 */
+	public String[] toArray() {
+		return index.infoToArray();
+	}
+}
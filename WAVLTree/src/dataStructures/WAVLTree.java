@@ -1,5 +1,7 @@
 package dataStructures;
 
+import java.util.function.BinaryOperator;
+
 /**
  *
  * WAVLTree
@@ -12,15 +14,119 @@ package dataStructures;
  */
 @SuppressWarnings("WeakerAccess")
 public class WAVLTree {
+	private static final int BATCH_WIDTH = 16; // descents in flight in searchBatch
 	private WAVLNode root;
-	public final WAVLNode OUTER_NODE = new WAVLNode();
+	/**
+	 * The outer node of every tree. It is shared, so it must stay unchanged:
+	 * its rank and parent can't be set, and nothing else writes to it.
+	 */
+	public static final WAVLNode OUTER_NODE = new WAVLNode();
+	private final boolean maintainSizes; // false - select is unsupported, size() uses count
+	private final DeleteMode deleteMode;
+	private int count; // number of nodes, kept in both modes
+	private int insertions; // nodes at the last rebuild + insertions since, for NO_REBALANCE
+	private int deadCount; // nodes marked dead and not purged yet, for TOMBSTONE
+	private WAVLNode finger; // last node reached by a finger operation, null if none
+	private WAVLNode minNode, maxNode; // extreme nodes (maybe dead), null if unknown
+	private final NodePool pool; // allocates and recycles the nodes, null if they aren't recycled
+
+	/**
+	 * How delete keeps the tree balanced.
+	 * REBALANCE - WAVL deletion, rebalancing bottom-up (the default).
+	 * NO_REBALANCE - deletion without rebalancing (Sen & Tarjan): delete only
+	 * 		unlinks the node and fixes sizes. Rank differences may grow beyond 2,
+	 * 		insertions still rebalance, and the tree is rebuilt when it has seen
+	 * 		more than twice as many insertions as it holds nodes.
+	 * TOMBSTONE - lazy deletion: delete only marks the node dead, and inserting
+	 * 		its key again revives it. Dead nodes are skipped by search, size,
+	 * 		select and the other queries, and are purged all at once (by
+	 * 		rebuilding the tree from the live nodes) when they outnumber the
+	 * 		live ones.
+	 */
+	public enum DeleteMode {
+		REBALANCE, NO_REBALANCE, TOMBSTONE
+	}
 
 	public WAVLTree(WAVLNode root) {
 		this.root = root;
+		this.maintainSizes = true;
+		this.deleteMode = DeleteMode.REBALANCE;
+		this.count = root.isInnerNode() ? root.size : 0;
+		this.insertions = count;
+		this.pool = null;
 	}
 
 	public WAVLTree() {
+		this(true);
+	}
+
+	/**
+	 * Constructs an empty tree.
+	 * If maintainSizes is false, the subtree sizes of the nodes are not updated
+	 * on inserts, deletes and rotations. That saves the walk to the root in
+	 * updateSizeUp, so insert and delete do O(1) amortized work after the search.
+	 * In that mode size() returns a counter, and select() is unsupported.
+	 * @param maintainSizes boolean whether to keep subtree sizes for select
+	 */
+	public WAVLTree(boolean maintainSizes) {
+		this(maintainSizes, DeleteMode.REBALANCE);
+	}
+
+	/**
+	 * Constructs an empty tree, with the given size maintenance and delete mode.
+	 * @param maintainSizes boolean whether to keep subtree sizes for select
+	 * @param deleteMode DeleteMode how delete keeps the tree balanced
+	 */
+	public WAVLTree(boolean maintainSizes, DeleteMode deleteMode) {
+		this(maintainSizes, deleteMode, null);
+	}
+
+	/**
+	 * Constructs an empty tree whose nodes come from a pool, and go back to it
+	 * when they are deleted. Trees of a WAVLForest share its pool.
+	 * @param pool NodePool to allocate and recycle the nodes
+	 */
+	public WAVLTree(NodePool pool) {
+		this(true, DeleteMode.REBALANCE, pool);
+	}
+
+	/**
+	 * Constructs an empty tree with a pool of its own, for workloads that
+	 * delete and insert about the same number of keys: a deleted node is kept
+	 * (up to poolCapacity of them) and reused by a later insertion, instead of
+	 * being garbage, and a new node allocated.
+	 * @param poolCapacity int the most deleted nodes to keep for reuse
+	 */
+	public WAVLTree(int poolCapacity) {
+		this(true, DeleteMode.REBALANCE, new NodePool(poolCapacity));
+	}
+
+	/**
+	 * Constructs an empty tree, with all the options.
+	 * A node that is recycled may be handed out again by the pool, so WAVLNode
+	 * references kept from getRoot() are valid only until the next delete.
+	 * @param maintainSizes boolean whether to keep subtree sizes for select
+	 * @param deleteMode DeleteMode how delete keeps the tree balanced
+	 * @param pool NodePool to allocate and recycle the nodes, or null to
+	 * 			allocate every node with new
+	 */
+	public WAVLTree(boolean maintainSizes, DeleteMode deleteMode, NodePool pool) {
 		this.root = OUTER_NODE;
+		this.maintainSizes = maintainSizes;
+		this.deleteMode = deleteMode;
+		this.count = 0;
+		this.insertions = 0;
+		this.pool = pool;
+	}
+
+	/**
+	 * public NodePool getPool()
+	 *
+	 * @Complexity O(1)
+	 * @return the pool the tree allocates its nodes from, or null if it has none
+	 */
+	public NodePool getPool() {
+		return pool;
 	}
 
 	/**
@@ -51,7 +157,7 @@ public class WAVLTree {
 		if (item == null) {
 			return null;
 		}
-		if (item.getRank() == -1) {
+		if (item.getRank() == -1 || item.dead) {
 			return null;
 		} else {
 			return item.getValue();
@@ -65,7 +171,7 @@ public class WAVLTree {
 	 * @param k int the key to look for
 	 * @return WAVLNode - if not found, then returns a, OUTER_NODE
 	 */
-	private WAVLNode treeSearch(WAVLNode x, int k) {
+	protected WAVLNode treeSearch(WAVLNode x, int k) {
 		if (x == null) {
 			return OUTER_NODE;
 		}
@@ -103,6 +209,120 @@ public class WAVLTree {
 		return y;
 	}
 
+	/**
+	 * public void searchBatch(int[] keys, String[] out)
+	 *
+	 * Searches all the keys, and puts the info of keys[j] (or null if it isn't
+	 * in the tree) in out[j].
+	 * A single search is a chain of dependent memory accesses, one per level.
+	 * Here the descents advance in lockstep, BATCH_WIDTH at a time, one level
+	 * per pass over the group. The accesses of one pass don't depend on each
+	 * other, so the CPU can overlap their cache misses.
+	 *
+	 * @Complexity O(m log n) for m keys, with up to BATCH_WIDTH misses in flight
+	 * @param keys int[] keys to search for, in any order
+	 * @param out String[] at least as long as keys, for the results
+	 */
+	public void searchBatch(int[] keys, String[] out) {
+		if (out.length < keys.length) {
+			throw new IllegalArgumentException("out is shorter than keys");
+		}
+		WAVLNode[] lanes = new WAVLNode[BATCH_WIDTH];
+		for (int from = 0; from < keys.length; from += BATCH_WIDTH) {
+			int width = Math.min(BATCH_WIDTH, keys.length - from);
+			for (int j = 0; j < width; j++) {
+				lanes[j] = root;
+			}
+			int active = width;
+			while (active > 0) {
+				active = 0;
+				for (int j = 0; j < width; j++) {
+					WAVLNode x = lanes[j];
+					if (x == null) { // this descent is done
+						continue;
+					}
+					int k = keys[from + j];
+					if (!x.isInnerNode() || k == x.getKey()) {
+						out[from + j] = x.isInnerNode() && !x.dead ? x.getValue() : null;
+						lanes[j] = null;
+					} else {
+						lanes[j] = k < x.getKey() ? x.getLeft() : x.getRight();
+						active++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * public void searchSortedBatch(int[] sortedKeys, String[] out)
+	 *
+	 * Same as searchBatch, for keys sorted in ascending order (repeats allowed).
+	 * The keys are split by every node on the way down, so nodes on the common
+	 * prefix of many paths are visited once, and not once per key.
+	 *
+	 * @Complexity O(m log(n/m + 1) + m) for m keys - every node is visited once
+	 * 				at most, and the splits are binary searches.
+	 * @param sortedKeys int[] keys to search for, in ascending order
+	 * @param out String[] at least as long as sortedKeys, for the results
+	 */
+	public void searchSortedBatch(int[] sortedKeys, String[] out) {
+		if (out.length < sortedKeys.length) {
+			throw new IllegalArgumentException("out is shorter than keys");
+		}
+		searchSorted(root, sortedKeys, 0, sortedKeys.length - 1, out);
+	}
+
+	/**
+	 * Searches sortedKeys[lo..hi] in the subtree of x, recursively.
+	 * @Complexity O(size of the subtree visited + binary searches)
+	 * @param x WAVLNode root of the subtree
+	 * @param keys int[] sorted keys
+	 * @param lo int first index of the range
+	 * @param hi int last index of the range
+	 * @param out String[] for the results
+	 */
+	private void searchSorted(WAVLNode x, int[] keys, int lo, int hi, String[] out) {
+		if (lo > hi) {
+			return;
+		}
+		if (!x.isInnerNode()) {
+			for (int j = lo; j <= hi; j++) {
+				out[j] = null;
+			}
+			return;
+		}
+		int mid = lowerBound(keys, lo, hi, x.getKey());
+		searchSorted(x.getLeft(), keys, lo, mid - 1, out);
+		while (mid <= hi && keys[mid] == x.getKey()) {
+			out[mid] = x.dead ? null : x.getValue();
+			mid++;
+		}
+		searchSorted(x.getRight(), keys, mid, hi, out);
+	}
+
+	/**
+	 * Binary search for the first index in keys[lo..hi] with a key >= k.
+	 * @Complexity O(log(hi - lo + 1))
+	 * @param keys int[] sorted keys
+	 * @param lo int first index of the range
+	 * @param hi int last index of the range
+	 * @param k int key to look for
+	 * @return the index, or hi + 1 if all the keys are smaller than k
+	 */
+	private static int lowerBound(int[] keys, int lo, int hi, int k) {
+		hi++;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] < k) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
 	/**
 	 * public int insert(int k, String i)
 	 *
@@ -111,31 +331,208 @@ public class WAVLTree {
 	 * 0 if no rebalancing operations were necessary. returns -1 if an item with key
 	 * k already exists in the tree.
 	 *
-	 * First, create a new WAVLNode with OUTER_NODEs as children.
+	 * First, find k's place with treePosition. If it ends at a live node with key k - return -1.
+	 * Otherwise insertBelow revives k's dead node (TOMBSTONE mode), or links
+	 * a new WAVLNode under the last node of the search, so the tree is
+	 * searched only once.
+	 * @Complexity O(treePosition + insertBelow) = O(log n) WC, O(1) amortized rebalancing
+	 * @param k int key of WAVLNode to insert
+	 * @param i String info of WAVLNode to insert
+	 * @return the number of rebalance operations after inserting x
+	 */
+	public int insert(int k, String i) {
+		WAVLNode y = treePosition(root, k);
+		if (isLive(y, k)) { // key k is already in the tree
+			return -1;
+		}
+		return insertBelow(y, k, i);
+	}
+
+	/**
+	 * Links a new node into the tree, and rebalances.
 	 * Check if the tree is empty, and if true - set x to root and return 0
 	 * If tree isn't empty, use treeInsert to insert the node.
 	 * If treeInsert found that the key is already in the tree - return -1
-	 * Else, x was already inserted in treeInsert, so we need to
-	 * updateSizeUp(x), and then rebalance(x)
+	 * Else, x was already inserted in treeInsert (which also updated the
+	 * sizes above it), so we rebalance from its parent.
+	 * Subclasses use it to add nodes of their own WAVLNode subclass.
 	 * @Complexity O(max{treeInsert, updateSizeUp, insertRebalance}) =
 	 * 				O(log n) WC, O(1) amortized
-	 * @param k int key of WAVLNode to insert
-	 * @param i String info of WAVLNode to insert
-	 * @return the number of rebalance operations after inserting x
+	 * @param x WAVLNode with OUTER_NODE children and no parent
+	 * @return the number of rebalance operations, or -1 if x's key is already in the tree
 	 */
-	public int insert(int k, String i) {
-		WAVLNode x = new WAVLNode(k, i, null, OUTER_NODE, OUTER_NODE);
+	protected int insertNode(WAVLNode x) {
 		if (empty()) {
 			this.root = x;
+			count++;
+			insertions++;
+			noteInserted(x);
+			return 0;
+		}
+		if (treeInsert(getRoot(), x) == -1) {
+			return -1;
+		}
+		count++;
+		insertions++;
+		noteInserted(x);
+		return insertRebalance(x.getParent());
+	}
+
+	/**
+	 * public String put(int k, String i)
+	 *
+	 * Sets the info of key k to i: an existing item is updated in place, and
+	 * otherwise a new item is inserted. The search for k ends either at k's
+	 * node or at the parent of the new leaf, so it is done only once, and the
+	 * tree is rebalanced only if a node was added.
+	 * @Complexity O(log n) for the search, O(1) amortized rebalancing
+	 * @param k int key of the item
+	 * @param i String the new info
+	 * @return the old info of k, or null if k wasn't in the tree
+	 */
+	public String put(int k, String i) {
+		WAVLNode y = treePosition(root, k);
+		if (!isLive(y, k)) {
+			insertBelow(y, k, i);
+			return null;
+		}
+		String old = y.getValue();
+		y.setValue(i);
+		return old;
+	}
+
+	/**
+	 * public String putIfAbsent(int k, String i)
+	 *
+	 * Inserts an item with key k and info i, unless k is already in the tree.
+	 * Same as insert(k, i), but the info of an existing item is returned.
+	 * @Complexity O(log n) for the search, O(1) amortized rebalancing
+	 * @param k int key of the item
+	 * @param i String info of the item
+	 * @return the info of k if it was in the tree (unchanged), or null if i was inserted
+	 */
+	public String putIfAbsent(int k, String i) {
+		WAVLNode y = treePosition(root, k);
+		if (isLive(y, k)) {
+			return y.getValue();
+		}
+		insertBelow(y, k, i);
+		return null;
+	}
+
+	/**
+	 * public String computeIfPresent(int k, Remapper remapper)
+	 *
+	 * If k is in the tree, replaces its info by remapper.apply(k, info), and
+	 * deletes the item if that is null. Nothing changes if k isn't in the tree.
+	 * The node is found once, and the tree is rebalanced only if it is deleted.
+	 * @Complexity O(log n) for the search, plus O(delete) if the item is deleted
+	 * @param k int key of the item
+	 * @param remapper Remapper computes the new info
+	 * @return the new info, or null if k isn't in the tree or was deleted
+	 */
+	public String computeIfPresent(int k, Remapper remapper) {
+		WAVLNode y = treePosition(root, k);
+		if (!isLive(y, k)) {
+			return null;
+		}
+		return replaceOrDelete(y, remapper.apply(k, y.getValue()));
+	}
+
+	/**
+	 * public String merge(int k, String i, BinaryOperator<String> merger)
+	 *
+	 * Inserts an item with key k and info i if k isn't in the tree. Otherwise,
+	 * replaces the info of k by merger.apply(info, i), and deletes the item if
+	 * that is null (as java.util.Map.merge does).
+	 * @Complexity O(log n) for the search, plus O(1) amortized rebalancing if
+	 * 				an item is inserted or deleted
+	 * @param k int key of the item
+	 * @param i String info to insert, or to merge with the current info
+	 * @param merger BinaryOperator<String> combines the current info with i
+	 * @return the new info of k, or null if the item was deleted
+	 */
+	public String merge(int k, String i, BinaryOperator<String> merger) {
+		WAVLNode y = treePosition(root, k);
+		if (!isLive(y, k)) {
+			insertBelow(y, k, i);
+			return i;
+		}
+		return replaceOrDelete(y, merger.apply(y.getValue(), i));
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param y WAVLNode the node found by treePosition for k
+	 * @param k int the key that was searched
+	 * @return true if y is a live node with key k
+	 */
+	private boolean isLive(WAVLNode y, int k) {
+		return y.isInnerNode() && y.getKey() == k && !y.dead;
+	}
+
+	/**
+	 * Inserts a new item under y, the node treePosition found for k, which
+	 * is k's dead node (revived), or the parent of the new leaf.
+	 * The sizes are updated from y up, and y is rebalanced like in insert.
+	 * @Complexity O(updateSizeUp + insertRebalance) = O(log n) WC, O(1) amortized rebalancing
+	 * @param y WAVLNode the last node on the search path of k, OUTER_NODE if the tree is empty
+	 * @param k int key of the new item
+	 * @param i String info of the new item
+	 * @return the number of rebalance operations
+	 */
+	private int insertBelow(WAVLNode y, int k, String i) {
+		if (y.isInnerNode() && y.getKey() == k) {
+			revive(y, i);
+			return 0;
+		}
+		return insertLeaf(y, newNode(k, i), !y.isInnerNode() || k < y.getKey());
+	}
+
+	/**
+	 * Links x as a new leaf under parent, updates the sizes from parent up,
+	 * and rebalances parent like in insert.
+	 * Subclasses whose nodes are ordered by keys of their own (see
+	 * LongWAVLTree) find the place with their own search, and link with it.
+	 * @Complexity O(updateSizeUp + insertRebalance) = O(log n) WC, O(1) amortized rebalancing
+	 * @param parent WAVLNode with an outer child on x's side, OUTER_NODE if the tree is empty
+	 * @param x WAVLNode with OUTER_NODE children and no parent
+	 * @param left boolean true to link x as the left child, false for the right
+	 * @return the number of rebalance operations
+	 */
+	protected int insertLeaf(WAVLNode parent, WAVLNode x, boolean left) {
+		count++;
+		insertions++;
+		if (!parent.isInnerNode()) {
+			this.root = x;
+			noteInserted(x);
 			return 0;
+		}
+		x.setParent(parent);
+		if (left) {
+			parent.setLeft(x);
 		} else {
-			int counter = treeInsert(getRoot(), x);
-			if (counter == -1) { // key k is already in the tree
-				return counter; // counter = -1
-			} else {
-				return insertRebalance(x.getParent());
-			}
+			parent.setRight(x);
+		}
+		updateSizeUp(parent);
+		noteInserted(x);
+		return insertRebalance(parent);
+	}
+
+	/**
+	 * Sets the info of a live node, or deletes the node if the info is null.
+	 * @Complexity O(1), or O(delete) if the node is deleted
+	 * @param y WAVLNode a live node of the tree
+	 * @param i String the new info, or null
+	 * @return i
+	 */
+	private String replaceOrDelete(WAVLNode y, String i) {
+		if (i == null) {
+			deleteNode(y);
+		} else {
+			y.setValue(i);
 		}
+		return i;
 	}
 
 	/**
@@ -164,7 +561,7 @@ public class WAVLTree {
 		if (rdiff + ldiff == 1) { // one is zero (established), the other is 1
 			return iCaseOneRebalance(x);
 		}
-		assert ldiff == 2 || rdiff == 2;
+		assert ldiff >= 2 || rdiff >= 2; // more than 2 only without delete rebalancing
 		// case 2, established that x is (0,2) node
 		if ((side == 'l' && x.getLeft().getRankDiff('l') == 1) ||
 				(side == 'r' && x.getRight().getRankDiff('r') == 1)) {
@@ -306,7 +703,6 @@ public class WAVLTree {
 	 */
 	private int dCaseOneRebalance(WAVLNode x) {
 		x.demote();
-
 		return 1 + deleteRebalance(x.getParent());
 	}
 
@@ -391,7 +787,7 @@ public class WAVLTree {
 	 */
 	private void rotateRight(WAVLNode x) {
 		WAVLNode y = x.getLeft();
-		if (x.getParent() != null && x.key > x.getParent().key) {
+		if (x.getParent() != null && x == x.getParent().getRight()) {
 			x.getParent().setRight(y);
 		} else if (x.getParent() != null) { // x is left child of its parent
 			x.getParent().setLeft(y);
@@ -401,8 +797,8 @@ public class WAVLTree {
 		x.setLeft(y.getRight());
 		y.setRight(x);
 		x.setParent(y);
-		x.updateSubtreeSize();
-		y.updateSubtreeSize();
+		updateSize(x);
+		updateSize(y);
 		if (x == this.getRoot()) {
 			this.root = y;
 		}
@@ -416,7 +812,7 @@ public class WAVLTree {
 	 */
 	private void rotateLeft(WAVLNode x) {
 		WAVLNode y = x.getRight();
-		if (x.getParent() != null && x.key > x.getParent().key) {
+		if (x.getParent() != null && x == x.getParent().getRight()) {
 			x.getParent().setRight(y);
 		} else if (x.getParent() != null) { // y is left child of its parent
 			x.getParent().setLeft(y);
@@ -426,8 +822,8 @@ public class WAVLTree {
 		x.setRight(y.getLeft());
 		y.setLeft(x);
 		x.setParent(y);
-		x.updateSubtreeSize();
-		y.updateSubtreeSize();
+		updateSize(x);
+		updateSize(y);
 		if (x == this.getRoot()) {
 			this.root = y;
 		}
@@ -477,6 +873,9 @@ public class WAVLTree {
 	 * then remove(z), and finally rebalance the tree.
 	 * remove, removeRoot and rebalance are used as private functions,
 	 * for readability, and have rebalance count the number of rebalance ops.
+	 * In NO_REBALANCE mode, the node is only removed, and the tree is rebuilt
+	 * if it has seen more than twice as many insertions as it holds nodes.
+	 * In TOMBSTONE mode, the node is only marked dead.
 	 * @Complexity O(remove + rebalance) = O(updateSizeUp + rebalance) =
 	 * 				= O(log n + rebalance) worst case. Amortized - O(1)
 	 * @param k int key to search for in the tree
@@ -484,19 +883,205 @@ public class WAVLTree {
 	 */
 	public int delete(int k) {
 		WAVLNode z = treeSearch(getRoot(), k);
-		if (z.getRank() == -1) {
+		if (z.getRank() == -1 || z.dead) {
 			return -1;
 		}
+		return deleteNode(z);
+	}
+
+	/**
+	 * Deletes the live node z, which was already found, as delete does in the
+	 * tree's DeleteMode. Subclasses with keys of their own delete with it.
+	 * @Complexity O(removeNode) = O(log n) worst case, O(1) amortized rebalancing
+	 * @param z WAVLNode a live node of the tree
+	 * @return number of rebalancing operations
+	 */
+	protected int deleteNode(WAVLNode z) {
+		count--;
+		if (deleteMode == DeleteMode.TOMBSTONE) {
+			return deleteLazily(z);
+		}
+		int steps = removeNode(z);
+		recycle(z);
+		return steps;
+	}
+
+	/**
+	 * Unlinks the live or dead node z from the tree, and rebalances, the way
+	 * delete does in REBALANCE mode, and without rebalancing in NO_REBALANCE
+	 * mode. In TOMBSTONE mode z is unlinked and rebalanced as well. z isn't
+	 * recycled, and the counts are up to the caller.
+	 * @Complexity O(remove + rebalance) = O(log n) worst case, O(1) amortized
+	 * 				rebalancing
+	 * @param z WAVLNode a node of the tree
+	 * @return number of rebalancing operations
+	 */
+	private int removeNode(WAVLNode z) {
+		noteRemoved(z);
+		if (deleteMode == DeleteMode.NO_REBALANCE) {
+			return deleteWithoutRebalancing(z);
+		}
 		if (z == getRoot()) {
 			WAVLNode reb = removeRoot();
-			if (reb == OUTER_NODE) {				
+			if (reb == OUTER_NODE) {
 				return 0;
 			}
 			return deleteRebalance(reb);
+		}
+		return deleteRebalance(remove(z));
+	}
+
+	/**
+	 * Allocates a node for a new item, from the pool if the tree has one.
+	 * Subclasses override it to allocate their own WAVLNode subclass.
+	 * It is called only once the key is known to be new, so a node taken from
+	 * the pool is always linked into the tree, and isn't lost.
+	 * @Complexity O(1)
+	 * @param k int key of the node
+	 * @param i String info of the node
+	 * @return WAVLNode with rank 0, OUTER_NODE children and no parent
+	 */
+	protected WAVLNode newNode(int k, String i) {
+		if (pool != null) {
+			return pool.acquire(k, i);
+		}
+		return new WAVLNode(k, i, null, OUTER_NODE, OUTER_NODE);
+	}
+
+	/**
+	 * Gives a node that was unlinked from the tree back to the pool, if the
+	 * tree has one.
+	 * @Complexity O(1)
+	 * @param x WAVLNode no longer referenced by the tree
+	 */
+	private void recycle(WAVLNode x) {
+		if (pool != null) {
+			pool.release(x);
+		}
+	}
+
+	/**
+	 * Removes z from the tree without rebalancing (Sen & Tarjan, deletion
+	 * without rebalancing). The rank differences stay positive, so insertions
+	 * can still rebalance, and the rank of the root is at most log_phi of the
+	 * number of insertions since the last rebuild (phi = golden ratio).
+	 * To keep the height O(log n), the tree is rebuilt once the number of
+	 * insertions (counting the nodes at the last rebuild) passes twice the
+	 * number of nodes. The height is then at most log_phi(2n) ~ 1.44 log n + 1.44.
+	 * At least n/2 deletions happen between rebuilds, so the rebuild costs O(1)
+	 * amortized per deletion.
+	 *
+	 * @Complexity O(updateSizeUp) = O(log n), O(n) when the tree is rebuilt
+	 * @param z WAVLNode to remove
+	 * @return 0, no rebalance operations are done
+	 */
+	private int deleteWithoutRebalancing(WAVLNode z) {
+		if (z == getRoot()) {
+			removeRoot();
 		} else {
-			WAVLNode y = remove(z);
-			return deleteRebalance(y);
+			remove(z);
+		}
+		if (insertions > 2 * count) {
+			rebuild();
+		}
+		return 0;
+	}
+
+	/**
+	 * Marks z dead (TOMBSTONE mode), and purges the dead nodes once they
+	 * outnumber the live ones. A purge costs O(n), and at least n/2 deletions
+	 * happen between purges, so it costs O(1) amortized per deletion. The dead
+	 * nodes make the tree at most twice as big as it would be without them, so
+	 * the height grows by at most 2 ranks.
+	 * @Complexity O(updateSizeUp) = O(log n), O(n) when the tree is purged
+	 * @param z WAVLNode live node to delete
+	 * @return 0, no rebalance operations are done
+	 */
+	private int deleteLazily(WAVLNode z) {
+		z.dead = true;
+		z.value = null;
+		deadCount++;
+		updateSizeUp(z);
+		if (deadCount > count) {
+			rebuild();
+		}
+		return 0;
+	}
+
+	/**
+	 * Revives z if it is a dead node, with the new info i.
+	 * @Complexity O(updateSizeUp) = O(log n)
+	 * @param z WAVLNode with the key that is inserted
+	 * @param i String the new info of z
+	 * @return true if z was revived, false if it is a live node
+	 */
+	private boolean revive(WAVLNode z, String i) {
+		if (!z.dead) {
+			return false;
+		}
+		z.dead = false;
+		z.value = i;
+		deadCount--;
+		count++;
+		updateSizeUp(z);
+		return true;
+	}
+
+	/**
+	 * Rebuilds the tree into a balanced tree with the same live nodes, in O(n).
+	 * The nodes are collected in order, and the middle node of every range
+	 * becomes the root of that range. Sibling subtrees differ in height by at
+	 * most 1, so setting every rank to the node's height gives a valid WAVL tree.
+	 * Dead nodes are left out, which is how TOMBSTONE mode purges them.
+	 * @Complexity O(n), n the number of live and dead nodes
+	 */
+	private void rebuild() {
+		WAVLNode[] nodes = new WAVLNode[count];
+		WAVLNode[] purged = new WAVLNode[pool != null ? deadCount : 0];
+		if (!empty()) {
+			int i = 0;
+			int j = 0;
+			for (WAVLNode current = min(root); current != null; current = successor(current)) {
+				if (!current.dead) {
+					nodes[i++] = current;
+				} else if (j < purged.length) {
+					purged[j++] = current;
+				}
+			}
+		}
+		this.root = buildBalanced(nodes, 0, nodes.length - 1, null);
+		for (WAVLNode x : purged) { // recycled once the walk no longer needs their links
+			recycle(x);
+		}
+		this.insertions = count;
+		this.deadCount = 0;
+		this.finger = null; // may have been purged
+		this.minNode = null;
+		this.maxNode = null;
+	}
+
+	/**
+	 * Links nodes[lo..hi] (sorted by key) into a balanced subtree, recursively.
+	 * Ranks are set to heights (leaves get rank 0), and sizes are set as well.
+	 * @Complexity O(hi - lo + 1)
+	 * @param nodes WAVLNode[] sorted by key
+	 * @param lo int first index of the range
+	 * @param hi int last index of the range
+	 * @param parent WAVLNode the parent of the subtree (null for the root)
+	 * @return the root of the subtree, or OUTER_NODE if the range is empty
+	 */
+	private WAVLNode buildBalanced(WAVLNode[] nodes, int lo, int hi, WAVLNode parent) {
+		if (lo > hi) {
+			return OUTER_NODE;
 		}
+		int mid = (lo + hi) >>> 1;
+		WAVLNode x = nodes[mid];
+		x.setParent(parent);
+		x.setLeft(buildBalanced(nodes, lo, mid - 1, x));
+		x.setRight(buildBalanced(nodes, mid + 1, hi, x));
+		x.setRank(1 + Math.max(x.getLeft().getRank(), x.getRight().getRank()));
+		x.updateSubtreeSize(); // hi - lo + 1, unless a subclass keeps more
+		return x;
 	}
 
 	/**
@@ -547,7 +1132,8 @@ public class WAVLTree {
 	 * Placing the successor in node's place in the tree
 	 * and removes node from the tree
 	 * @param node node to swap with successor
-	 * @Complexity O(1)
+	 * @Complexity O(1), O(log n) if node and its successor add different
+	 * 				amounts to the sizes above them (see contributesLike)
 	 */
 	private void successorSwap(WAVLNode node) {
 		WAVLNode succ = successor(node);
@@ -569,10 +1155,15 @@ public class WAVLTree {
 			node.getParent().setRight(succ);
 		}
 		succ.setParent(node.getParent());
-		succ.updateSubtreeSize();
 		if (node == root) {
 			root = succ;
 		}
+		if (!succ.contributesLike(node)) {
+			// the sizes above lost succ when it was removed, but still count node
+			updateSizeUp(succ);
+		} else {
+			updateSize(succ);
+		}
 	}
 
 	/**
@@ -612,21 +1203,18 @@ public class WAVLTree {
 			ret = newRoot.getParent(); //This is the node we need to rebalance on
 			// Case 3
 			if (newRoot == getRoot().getRight()) {
-				newRoot.setLeft(getRoot().getLeft());
-				newRoot.setParent(getRoot().getParent());
-				this.root = newRoot;
-				getRoot().getSubtreeSize();
-			}
-			// Case 4
-			else {
 				/*
-				 * If newRoot isn't root's right child then:
-				 * perform successor swap
-				 *
+				 * newRoot takes the root's place (and rank), so the
+				 * rebalancing starts from newRoot itself.
 				 * */
-				successorSwap(root);
-				this.root = newRoot; // (7)
+				ret = newRoot;
 			}
+			// Case 3 + Case 4
+			/*
+			 * perform successor swap, which also sets the new root
+			 * */
+			successorSwap(root);
+			this.root = newRoot; // (7)
 		}
 		return ret;
 	}
@@ -685,10 +1273,14 @@ public class WAVLTree {
 	 * 		find the next parent.
 	 * 	Once we reached the root, we exit the loop without
 	 * 	updating the size of root, so we update the size of the last parent.
+	 * Subclasses call it after changing what a node's selfSize() returns.
 	 * @Complexity worst case O(log n) where n is # nodes in tree (height of tree)
 	 * @param node node to update size to
 	 */
-	private void updateSizeUp(WAVLNode node) {
+	protected void updateSizeUp(WAVLNode node) {
+		if (!maintainSizes) {
+			return;
+		}
 		node.updateSubtreeSize(); // update the size of the first node
 
 		// If node isn't the root, then we need to go up the tree
@@ -708,88 +1300,1430 @@ public class WAVLTree {
 	}
 
 	/**
-	 * Returns the node with the key directly following x.
-	 * This does not deal with call successor on the maximum of the tree,
-	 * because we don't meet this case in any other operation.
-	 *
-	 * Implement by pseudo-code from class
-	 *
-	 * @Complexity O(log n) worst case, where n is the number of nodes in the tree
-	 * @param x WAVLNode A node in the tree
-	 * @return y The WAVLNode with the following key
+	 * Updates the size of a single node, if the tree maintains sizes.
+	 * Used after rotations and swaps, which only change the sizes locally.
+	 * @Complexity O(1)
+	 * @param node WAVLNode to update
 	 */
-	private WAVLNode successor(WAVLNode x) {
-		if (x.getRight().getRank() != -1) {
-			return min(x.getRight());
-		} else {
-			WAVLNode y = x.getParent();
-			while (y != null && x == y.getRight()) {
-				x = y;
-				y = x.getParent();
-			}
-			return y;
+	private void updateSize(WAVLNode node) {
+		if (maintainSizes) {
+			node.updateSubtreeSize();
 		}
 	}
 
-
 	/**
-	 * public String min()
-	 *
-	 * Returns the info of the item with the smallest key in the tree, or null if
-	 * the tree is empty
-	 *
-	 * We use the private WAVLNode min to find the node with the minimal key
-	 * in the subtree under node, and the return it's value
-	 * @Complexity O(log n) n the number of nodes in the tree
-	 * @return the value of the node with the minimal key
+	 * Adds delta to the size of a single node, if the tree maintains sizes.
+	 * Used by the top-down operations, which fix the sizes on the way down.
+	 * @Complexity O(1)
+	 * @param node WAVLNode to update
+	 * @param delta int to add to the size
 	 */
-	public String min() {
-		return min(root).getValue();
+	private void addToSize(WAVLNode node, int delta) {
+		if (maintainSizes) {
+			node.size += delta;
+		}
 	}
 
 	/**
-	 * implemented recursively
-	 *
-	 * @Complexity O(log n) where n is the number of nodes in the subtree. The worst
-	 *             case happens when the min is of depth = height.
-	 * @param node the root of the current subtree
-	 * @return minimal node in tree
+	 * Walks from the root towards key k, adding delta to the size of every
+	 * node until reaching stop. Used to undo the size changes of a top-down
+	 * operation that turned out to be a no-op (existing or missing key).
+	 * @Complexity O(log n)
+	 * @param k int the key the operation was looking for
+	 * @param stop WAVLNode the node the operation stopped at
+	 * @param delta int to add to the size of the nodes above stop
 	 */
-	private WAVLNode min(WAVLNode node) {
-		if (node == OUTER_NODE || node.getLeft() == OUTER_NODE) {
-			return node;
+	private void addToSizesAbove(int k, WAVLNode stop, int delta) {
+		WAVLNode x = this.root;
+		while (maintainSizes && x != stop) {
+			x.size += delta;
+			x = k < x.getKey() ? x.getLeft() : x.getRight();
 		}
-		return min(node.getLeft());
 	}
 
 	/**
-	 * public String max()
-	 *
-	 * Returns the info of the item with the largest key in the tree, or null if the
-	 * tree is empty
-	 *
-	 * We use the private WAVLNode max to find the node with the maximal key
-	 * in the subtree under node, and the return it's value
-	 * @Complexity O(log n) n the number of nodes in the tree
-	 * @return the value of the node with the maximal key
+	 * @pre node is an inner node
+	 * @return true if both of node's rank differences are 1
 	 */
-	public String max() {
-		return max(root).getValue();
+	private boolean isOneOne(WAVLNode node) {
+		return node.getRankDiff('l') == 1 && node.getRankDiff('r') == 1;
 	}
 
 	/**
-	 * Implemented recursively
-	 *
-	 * @Complexity O(log n) where n is the number of nodes in the subtree. The worst
-	 *             case happens when the max is of depth = height.
-	 * @param node the root of the current subtree
-	 * @return maximal node in the tree
+	 * @pre node is an inner node
+	 * @return true if both of node's rank differences are 2
 	 */
-	private WAVLNode max(WAVLNode node) {
-		if (node == OUTER_NODE || node.getRight() == OUTER_NODE) {
-			return node;
-		}
-		return max(node.getRight());
+	private boolean isTwoTwo(WAVLNode node) {
+		return node.getRankDiff('l') == 2 && node.getRankDiff('r') == 2;
+	}
+
+	/**
+	 * public int insertTopDown(int k, String i)
+	 *
+	 * Same contract as insert(k, i), but the rebalancing is done on the way
+	 * down, in a single pass from the root (Haeupler, Sen & Tarjan, top-down
+	 * insertion). Bottom-up, a promotion climbs through consecutive 1,1 nodes.
+	 * On the way down we keep the current node c from being a 1,1 node, so any
+	 * promotion that reaches c stops there (with a rotation at most):
+	 * If the next node y on the path is a 1,1 node, and so is the node after it,
+	 * y is fixed before going on:
+	 * 		y is a 2-child - promote y.
+	 * 		y is a 1-child, and the path continues on the outer side - promote y
+	 * 			and rotate it above c.
+	 * 		y is a 1-child, and the path continues on the inner side - double
+	 * 			rotation, the grandchild rises by two ranks.
+	 * Sizes are updated on the way down as well. After the new leaf is attached,
+	 * insertRebalance climbs at most two levels. Nodes that keep more than the
+	 * size (see contributesLike) get their fields recomputed by one climb from
+	 * the new leaf, once the tree has its final shape.
+	 * The nodes the operation writes to are always the current node and the
+	 * two below it, which is what hand-over-hand locking needs.
+	 *
+	 * @Complexity O(log n) worst case, O(1) rebalancing per level
+	 * @param k int key of WAVLNode to insert
+	 * @param i String info of WAVLNode to insert
+	 * @return the number of rebalance operations, or -1 if k is already in the tree
+	 */
+	public int insertTopDown(int k, String i) {
+		if (empty()) {
+			this.root = newNode(k, i);
+			count++;
+			insertions++;
+			noteInserted(root);
+			return 0;
+		}
+		int steps = 0;
+		WAVLNode c = this.root;
+		if (c.getKey() != k && !c.isLeaf() && isOneOne(c)) {
+			c.promote(); // a promoted root can't cause problems above it
+			steps++;
+		}
+		while (true) {
+			if (k == c.getKey()) {
+				addToSizesAbove(k, c, -1);
+				return revive(c, i) ? steps : -1;
+			}
+			WAVLNode y = k < c.getKey() ? c.getLeft() : c.getRight();
+			if (!y.isInnerNode()) { // insert under c
+				addToSize(c, 1);
+				return steps + attachLeaf(c, k, i);
+			}
+			if (k == y.getKey()) {
+				addToSizesAbove(k, c, -1);
+				return revive(y, i) ? steps : -1;
+			}
+			if (!isOneOne(y)) {
+				addToSize(c, 1);
+				c = y;
+				continue;
+			}
+			WAVLNode w = k < y.getKey() ? y.getLeft() : y.getRight();
+			if (!w.isInnerNode()) { // y is a leaf, insert under it
+				addToSize(c, 1);
+				addToSize(y, 1);
+				return steps + attachLeaf(y, k, i);
+			}
+			if (k == w.getKey()) {
+				addToSizesAbove(k, c, -1);
+				return revive(w, i) ? steps : -1;
+			}
+			if (!isOneOne(w)) { // a promotion of w's children stops at w
+				addToSize(c, 1);
+				addToSize(y, 1);
+				c = w;
+				continue;
+			}
+			// y and w are both 1,1 nodes - fix y
+			char ySide = y == c.getLeft() ? 'l' : 'r';
+			char wSide = w == y.getLeft() ? 'l' : 'r';
+			if (c.getRankDiff(ySide) != 1) { // 2, or more without delete rebalancing
+				y.promote();
+				steps++;
+				addToSize(c, 1);
+				c = y;
+			} else if (ySide == wSide) {
+				y.promote();
+				c.demote();
+				if (ySide == 'l') {
+					rotateRight(c);
+				} else {
+					rotateLeft(c);
+				}
+				steps += 3;
+				c = y; // y took c's place, and its size
+			} else {
+				w.promote();
+				w.promote();
+				c.demote();
+				if (ySide == 'l') {
+					rotateLeft(y);
+					rotateRight(c);
+				} else {
+					rotateRight(y);
+					rotateLeft(c);
+				}
+				steps += 5;
+				addToSize(w, 1);
+				c = k < w.getKey() ? w.getLeft() : w.getRight();
+			}
+		}
+	}
+
+	/**
+	 * Attaches a new leaf with key k under parent, and rebalances from parent.
+	 * Used by the top-down insertion, after the sizes were updated on the way down.
+	 * @Complexity O(insertRebalance)
+	 * @param parent WAVLNode with an outer child on k's side
+	 * @param k int key of the new leaf
+	 * @param i String info of the new leaf
+	 * @return the number of rebalance operations
+	 */
+	private int attachLeaf(WAVLNode parent, int k, String i) {
+		WAVLNode x = newNode(k, i);
+		x.setParent(parent);
+		if (k < parent.getKey()) {
+			parent.setLeft(x);
+		} else {
+			parent.setRight(x);
+		}
+		count++;
+		insertions++;
+		noteInserted(x);
+		int steps = insertRebalance(parent);
+		refreshFieldsUp(x);
+		return steps;
+	}
+
+	/**
+	 * Recomputes the subtree fields from node up to the root, if its nodes keep
+	 * more than the size in them (contributesLike says so). The top-down
+	 * operations only add to the sizes on the way down, and call this at the
+	 * end, so subclasses with other subtree fields need no top-down code.
+	 * The rotations before it only recompute nodes whose children are current,
+	 * or nodes that end up above node.
+	 * @Complexity O(1) for plain nodes, O(log n) otherwise
+	 * @param node WAVLNode the lowest node whose subtree changed, or null
+	 */
+	private void refreshFieldsUp(WAVLNode node) {
+		if (node != null && node.isInnerNode() && !node.contributesLike(node)) {
+			updateSizeUp(node);
+		}
+	}
+
+	/**
+	 * public int deleteTopDown(int k)
+	 *
+	 * Same contract as delete(k), but the rebalancing is done on the way down,
+	 * in a single pass from the root. Bottom-up, a demotion climbs through
+	 * 2-children. On the way down we make sure the parent c of the next node y
+	 * can absorb y losing a rank: y is a 1-child of c, or y is a 2-child whose
+	 * sibling is a 1-child that isn't 2,2 (a rotation at c ends the rebalancing).
+	 * Otherwise c is demoted (together with y's sibling, if the sibling is a 2,2
+	 * node), which c's parent can absorb by the same rule - with a rotation at
+	 * most (deletion cases 3 and 4).
+	 * The path continues to the successor of a binary node, and the node that is
+	 * unlinked at the bottom is always a leaf or a unary node. After unlinking it,
+	 * deleteRebalance climbs at most two levels, and fields other than the size
+	 * are recomputed as in insertTopDown.
+	 *
+	 * In NO_REBALANCE and TOMBSTONE modes, this is the same as delete(k).
+	 *
+	 * @Complexity O(log n) worst case, O(1) rebalancing per level
+	 * @param k int key to delete
+	 * @return the number of rebalance operations, or -1 if k isn't in the tree
+	 */
+	public int deleteTopDown(int k) {
+		if (deleteMode != DeleteMode.REBALANCE) {
+			return delete(k); // no rebalancing to do on the way down
+		}
+		if (empty()) {
+			return -1;
+		}
+		int steps = 0;
+		WAVLNode target = null;
+		WAVLNode c = this.root;
+		while (true) {
+			WAVLNode y;
+			if (target == null && k == c.getKey()) {
+				target = c;
+				if (!c.getLeft().isInnerNode() || !c.getRight().isInnerNode()) {
+					break;
+				}
+				y = c.getRight(); // continue to the successor
+			} else if (target != null) {
+				if (!c.getLeft().isInnerNode()) {
+					break; // c is the successor of target
+				}
+				y = c.getLeft();
+			} else {
+				y = k < c.getKey() ? c.getLeft() : c.getRight();
+				if (!y.isInnerNode()) {
+					addToSizesAbove(k, c, 1);
+					return -1;
+				}
+			}
+			steps += prepareDeletePath(c, y);
+			addToSize(c, -1);
+			c = y;
+		}
+		count--;
+		noteRemoved(target);
+		steps += unlink(c, target);
+		recycle(target);
+		return steps;
+	}
+
+	/**
+	 * Makes sure c can absorb its child y losing a rank, as explained in
+	 * deleteTopDown. If c has to be demoted for that, c's parent is fixed with
+	 * a rotation when needed. All the nodes above c already had their sizes
+	 * decremented, so the nodes that the rotation recomputed are decremented again.
+	 * @Complexity O(1)
+	 * @param c WAVLNode the current node of the top-down deletion
+	 * @param y WAVLNode c's child on the path
+	 * @return the number of rebalance operations
+	 */
+	private int prepareDeletePath(WAVLNode c, WAVLNode y) {
+		char ySide = y == c.getLeft() ? 'l' : 'r';
+		char sSide = ySide == 'l' ? 'r' : 'l';
+		WAVLNode s = sSide == 'l' ? c.getLeft() : c.getRight();
+		if (c.getRankDiff(ySide) == 1) {
+			return 0;
+		}
+		int steps;
+		if (c.getRankDiff(sSide) == 2) {
+			c.demote();
+			steps = 1;
+		} else if (isTwoTwo(s)) {
+			c.demote();
+			s.demote();
+			steps = 2;
+		} else {
+			return 0; // a rotation at c will end the rebalancing
+		}
+		WAVLNode p = c.getParent();
+		if (p == null) {
+			return steps;
+		}
+		char cSide = c == p.getLeft() ? 'l' : 'r';
+		if (p.getRankDiff(cSide) < 3) {
+			return steps;
+		}
+		// c's sibling is a 1-child which isn't 2,2, so a rotation ends it
+		char tSide = cSide == 'l' ? 'r' : 'l';
+		if (checkDiffs(p, tSide)[1] == 1) {
+			steps += dCaseThreeRebalance(p, tSide);
+		} else {
+			steps += dCaseFourRebalance(p, tSide);
+		}
+		addToSize(p, -1);
+		addToSize(p.getParent(), -1);
+		return steps;
+	}
+
+	/**
+	 * Unlinks the bottom node of a top-down deletion, which is a leaf or a unary
+	 * node, and puts it in target's place if it is target's successor.
+	 * The sizes above it were already decremented on the way down.
+	 * @Complexity O(deleteRebalance), climbs at most two levels
+	 * @param q WAVLNode to unlink - target, or target's successor
+	 * @param target WAVLNode with the deleted key
+	 * @return the number of rebalance operations
+	 */
+	private int unlink(WAVLNode q, WAVLNode target) {
+		WAVLNode child = q.getLeft().isInnerNode() ? q.getLeft() : q.getRight();
+		WAVLNode parent = q.getParent();
+		if (child.isInnerNode()) {
+			child.setParent(parent);
+		}
+		if (parent == null) {
+			this.root = child;
+		} else {
+			parent.setChild(child, side(q));
+		}
+		if (q == target) {
+			int steps = deleteRebalance(parent);
+			refreshFieldsUp(parent);
+			return steps;
+		}
+		WAVLNode start = parent == target ? q : parent;
+		q.setRank(target.getRank());
+		q.setLeft(target.getLeft());
+		q.setRight(target.getRight());
+		if (q.getLeft().isInnerNode()) {
+			q.getLeft().setParent(q);
+		}
+		if (q.getRight().isInnerNode()) {
+			q.getRight().setParent(q);
+		}
+		WAVLNode targetParent = target.getParent();
+		if (targetParent == null) {
+			this.root = q;
+		} else {
+			targetParent.setChild(q, side(target));
+		}
+		q.setParent(targetParent);
+		q.size = target.size;
+		int steps = deleteRebalance(start);
+		refreshFieldsUp(start);
+		return steps;
+	}
+
+	/**
+	 * public String fingerSearch(int k)
+	 *
+	 * Same contract as search(k), but the search starts from the finger, the
+	 * last node reached by a finger operation, instead of the root.
+	 * From the finger we climb only until the first ancestor whose subtree must
+	 * contain k (the lowest common ancestor of the finger and k's position), and
+	 * descend from there. Keys beyond the minimum or the maximum start from that
+	 * extreme node, so the ends of sorted streams don't climb to the root.
+	 * The finger is then moved to the last node on the path.
+	 *
+	 * @Complexity O(log d) for most keys at distance d (in keys) from the finger,
+	 * 				O(log n) worst case - when the finger and k are on both
+	 * 				sides of a high ancestor.
+	 * @param k int key to search for
+	 * @return value of node with key k, or null if it doesn't exists
+	 */
+	public String fingerSearch(int k) {
+		if (empty()) {
+			return null;
+		}
+		WAVLNode x = treePosition(fingerStart(k), k);
+		finger = x;
+		if (x.getKey() != k || x.dead) {
+			return null;
+		}
+		return x.getValue();
+	}
+
+	/**
+	 * public int fingerInsert(int k, String i)
+	 *
+	 * Same contract as insert(k, i), but the insertion point is found from the
+	 * finger, as in fingerSearch, and the finger is moved to the new node.
+	 * For nearly sorted keys, each insertion point is a few steps from the last,
+	 * so the search is O(1), like the amortized rebalancing. Updating the subtree
+	 * sizes still walks up to the root, so trees that don't maintain sizes gain
+	 * the most.
+	 *
+	 * @Complexity O(log d) for most keys at distance d from the finger, plus
+	 * 				O(log n) for the sizes if they are maintained
+	 * @param k int key of WAVLNode to insert
+	 * @param i String info of WAVLNode to insert
+	 * @return the number of rebalance operations, or -1 if k is already in the tree
+	 */
+	public int fingerInsert(int k, String i) {
+		if (empty()) {
+			int steps = insert(k, i);
+			finger = root;
+			return steps;
+		}
+		WAVLNode y = treePosition(fingerStart(k), k);
+		if (y.getKey() == k) { // key k is already in the tree
+			finger = y;
+			return revive(y, i) ? 0 : -1;
+		}
+		finger = newNode(k, i);
+		return insertLeaf(y, finger, k < y.getKey());
+	}
+
+	/**
+	 * Finds where a finger operation on k starts: the lowest ancestor of the
+	 * finger whose subtree must contain k. Climbing from a left child to its
+	 * parent p bounds the subtree from above by p's key, so for k above the
+	 * finger we stop at the first such p with k <= p.key (and the other way
+	 * around for k below the finger).
+	 * @Complexity O(log d) for most keys at distance d from the finger, O(log n) WC
+	 * @param k int the key of the operation
+	 * @return WAVLNode to descend from, the root if there is no finger
+	 */
+	private WAVLNode fingerStart(int k) {
+		if (finger == null) {
+			return root;
+		}
+		if (maxNode == null) {
+			maxNode = max(root);
+		}
+		if (minNode == null) {
+			minNode = min(root);
+		}
+		if (k > maxNode.getKey()) {
+			return maxNode;
+		}
+		if (k < minNode.getKey()) {
+			return minNode;
+		}
+		WAVLNode x = finger;
+		boolean above = k > x.getKey();
+		while (x.getParent() != null && k != x.getKey()) {
+			WAVLNode p = x.getParent();
+			if (above && x == p.getLeft() && k <= p.getKey()) {
+				return p;
+			}
+			if (!above && x == p.getRight() && k >= p.getKey()) {
+				return p;
+			}
+			x = p;
+		}
+		return x;
+	}
+
+	/**
+	 * public int insertAll(int[] sortedKeys, String[] values)
+	 *
+	 * Inserts the items (sortedKeys[j], values[j]), skipping keys that are
+	 * already in the tree. Instead of a descent (and a size update) per key,
+	 * the batch is split by the root's key, each part is inserted into its
+	 * subtree recursively, and the results are joined back with the root.
+	 * A batch that reaches an empty subtree becomes a balanced subtree there.
+	 * Ranks and sizes are fixed by the joins, in post-order.
+	 *
+	 * @Complexity O(m log(n/m + 1)) for m keys, instead of O(m log n)
+	 * @param sortedKeys int[] keys in strictly ascending order
+	 * @param values String[] the info of each key
+	 * @return the number of keys inserted
+	 * @throws IllegalArgumentException if the keys aren't strictly ascending
+	 */
+	public int insertAll(int[] sortedKeys, String[] values) {
+		checkAscending(sortedKeys);
+		if (values.length < sortedKeys.length) {
+			throw new IllegalArgumentException("values is shorter than keys");
+		}
+		int before = count;
+		detach(root);
+		setJoinedRoot(union(root, sortedKeys, values, 0, sortedKeys.length - 1));
+		return count - before;
+	}
+
+	/**
+	 * public int deleteAll(int[] sortedKeys)
+	 *
+	 * Deletes the keys that are in the tree, splitting the batch at each node
+	 * like insertAll. A deleted node's subtrees are joined without it, and in
+	 * TOMBSTONE mode it is only marked dead.
+	 *
+	 * @Complexity O(m log(n/m + 1)) for m keys, instead of O(m log n)
+	 * @param sortedKeys int[] keys in strictly ascending order
+	 * @return the number of keys deleted
+	 * @throws IllegalArgumentException if the keys aren't strictly ascending
+	 */
+	public int deleteAll(int[] sortedKeys) {
+		checkAscending(sortedKeys);
+		int before = count;
+		this.minNode = null; // difference unlinks nodes while the tree is apart
+		this.maxNode = null;
+		detach(root);
+		setJoinedRoot(difference(root, sortedKeys, 0, sortedKeys.length - 1));
+		if (deleteMode == DeleteMode.NO_REBALANCE && insertions > 2 * count) {
+			rebuild();
+		}
+		if (deleteMode == DeleteMode.TOMBSTONE && deadCount > count) {
+			rebuild();
+		}
+		return before - count;
+	}
+
+	/**
+	 * public int forEachInRange(int lo, int hi, RangeVisitor visitor)
+	 *
+	 * Visits the items with lo <= key <= hi in key order, until the visitor
+	 * returns false. The search goes down to the first key >= lo, and then
+	 * walks by successorNode, so nothing is copied. The tree must not change
+	 * during the scan.
+	 * @Complexity O(log n + m) for m visited items, plus the number of dead
+	 * 				nodes skipped
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @param visitor RangeVisitor called with each item
+	 * @return the number of items visited
+	 */
+	public int forEachInRange(int lo, int hi, RangeVisitor visitor) {
+		int visited = 0;
+		for (WAVLNode x = ceilingNode(lo); x != null && x.getKey() <= hi; x = successorNode(x)) {
+			visited++;
+			if (!visitor.visit(x.getKey(), x.getValue())) {
+				break;
+			}
+		}
+		return visited;
+	}
+
+	/**
+	 * public int deleteRange(int lo, int hi)
+	 *
+	 * Deletes the items with lo <= key <= hi. The tree is split around the
+	 * range with joins, like deleteAll does, and the subtrees inside the range
+	 * are dropped whole. In TOMBSTONE mode the items are removed too, along
+	 * with the dead nodes in the range.
+	 * The dropped nodes are only visited to count them, to recycle them into
+	 * the pool, or to count the dead ones. When the sizes are maintained and
+	 * none of that is needed, the sizes count them in O(1).
+	 *
+	 * @Complexity O(log n) with sizes, no dead nodes and no pool to fill,
+	 * 				O(log n + m) for m deleted nodes otherwise
+	 * @param lo int smallest key of the range
+	 * @param hi int largest key of the range
+	 * @return the number of items deleted
+	 */
+	public int deleteRange(int lo, int hi) {
+		if (lo > hi || empty()) {
+			return 0;
+		}
+		int before = count;
+		forgetInRange(lo, hi);
+		detach(root);
+		setJoinedRoot(cutRange(root, lo, hi));
+		if (deleteMode == DeleteMode.NO_REBALANCE && insertions > 2 * count) {
+			rebuild();
+		}
+		if (deleteMode == DeleteMode.TOMBSTONE && deadCount > count) {
+			rebuild();
+		}
+		return before - count;
+	}
+
+	/**
+	 * Forgets the finger and the extreme nodes if their keys are in [lo, hi],
+	 * since deleteRange doesn't look at every node it drops.
+	 * @Complexity O(1)
+	 */
+	private void forgetInRange(int lo, int hi) {
+		if (finger != null && lo <= finger.getKey() && finger.getKey() <= hi) {
+			finger = null;
+		}
+		if (minNode != null && lo <= minNode.getKey() && minNode.getKey() <= hi) {
+			minNode = null;
+		}
+		if (maxNode != null && lo <= maxNode.getKey() && maxNode.getKey() <= hi) {
+			maxNode = null;
+		}
+	}
+
+	/**
+	 * Deletes the keys in [lo, hi] from the detached subtree of x. Above the
+	 * range only one side is cut. At the first node in the range, its left
+	 * subtree keeps the keys below lo, its right subtree the keys above hi,
+	 * and the two are joined without it.
+	 * @Complexity O(log n), plus the dropped nodes that are visited
+	 * @return the root of the new (detached) subtree
+	 */
+	private WAVLNode cutRange(WAVLNode x, int lo, int hi) {
+		if (!x.isInnerNode()) {
+			return x;
+		}
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		detach(right);
+		if (x.getKey() < lo) {
+			return join(left, x, cutRange(right, lo, hi));
+		}
+		if (x.getKey() > hi) {
+			return join(cutRange(left, lo, hi), x, right);
+		}
+		left = keepBelow(left, lo);
+		right = keepAbove(right, hi);
+		dropNode(x);
+		if (!left.isInnerNode()) {
+			return right;
+		}
+		WAVLNode[] last = new WAVLNode[1];
+		WAVLNode rest = removeLast(left, last);
+		return join(rest, last[0], right);
+	}
+
+	/**
+	 * Keeps the keys below lo in the detached subtree of x, and drops the rest.
+	 * @Complexity O(log n), plus the dropped nodes that are visited
+	 * @return the root of the new (detached) subtree
+	 */
+	private WAVLNode keepBelow(WAVLNode x, int lo) {
+		if (!x.isInnerNode()) {
+			return x;
+		}
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		detach(right);
+		if (x.getKey() < lo) {
+			return join(left, x, keepBelow(right, lo));
+		}
+		dropSubtree(right);
+		dropNode(x);
+		return keepBelow(left, lo);
+	}
+
+	/**
+	 * Mirror image of keepBelow: keeps the keys above hi.
+	 * @Complexity O(log n), plus the dropped nodes that are visited
+	 * @return the root of the new (detached) subtree
+	 */
+	private WAVLNode keepAbove(WAVLNode x, int hi) {
+		if (!x.isInnerNode()) {
+			return x;
+		}
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		detach(right);
+		if (x.getKey() > hi) {
+			return join(keepAbove(left, hi), x, right);
+		}
+		dropSubtree(left);
+		dropNode(x);
+		return keepAbove(right, hi);
+	}
+
+	/**
+	 * Drops a whole subtree that was cut off the tree. Its size is taken off
+	 * the count at once, unless some of its nodes are dead, the sizes aren't
+	 * maintained, or the pool takes more nodes; then every node is dropped.
+	 * @Complexity O(1) or O(nodes in the subtree)
+	 * @param x WAVLNode root of the subtree, or OUTER_NODE
+	 */
+	private void dropSubtree(WAVLNode x) {
+		if (!x.isInnerNode()) {
+			return;
+		}
+		if (maintainSizes && deadCount == 0 && (pool == null || pool.size() == pool.capacity())) {
+			count -= x.getSubtreeSize();
+			return;
+		}
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		dropNode(x);
+		dropSubtree(left);
+		dropSubtree(right);
+	}
+
+	/**
+	 * Counts a cut off node as deleted, and recycles it.
+	 * @Complexity O(1)
+	 * @param x WAVLNode the node, no longer linked from the tree
+	 */
+	private void dropNode(WAVLNode x) {
+		if (x.dead) {
+			deadCount--;
+		} else {
+			count--;
+		}
+		recycle(x);
+	}
+
+	/**
+	 * Inserts keys[lo..hi] into the detached subtree of x, recursively.
+	 * @Complexity O(m log(n/m + 1)), m = hi - lo + 1, n the size of the subtree
+	 * @return the root of the new (detached) subtree
+	 */
+	private WAVLNode union(WAVLNode x, int[] keys, String[] values, int lo, int hi) {
+		if (lo > hi) {
+			return x;
+		}
+		if (!x.isInnerNode()) {
+			WAVLNode[] nodes = new WAVLNode[hi - lo + 1];
+			for (int j = lo; j <= hi; j++) {
+				nodes[j - lo] = newNode(keys[j], values[j]);
+			}
+			count += nodes.length;
+			insertions += nodes.length;
+			noteInserted(nodes[0]);
+			noteInserted(nodes[nodes.length - 1]);
+			return buildBalanced(nodes, 0, nodes.length - 1, null);
+		}
+		int mid = lowerBound(keys, lo, hi, x.getKey());
+		int next = mid;
+		if (next <= hi && keys[next] == x.getKey()) {
+			if (x.dead) { // revived, the join recomputes the sizes
+				x.dead = false;
+				x.value = values[next];
+				deadCount--;
+				count++;
+			}
+			next++;
+		}
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		detach(right);
+		left = union(left, keys, values, lo, mid - 1);
+		right = union(right, keys, values, next, hi);
+		return join(left, x, right);
+	}
+
+	/**
+	 * Deletes keys[lo..hi] from the detached subtree of x, recursively.
+	 * @Complexity O(m log(n/m + 1)), m = hi - lo + 1, n the size of the subtree
+	 * @return the root of the new (detached) subtree
+	 */
+	private WAVLNode difference(WAVLNode x, int[] keys, int lo, int hi) {
+		if (lo > hi || !x.isInnerNode()) {
+			return x;
+		}
+		int mid = lowerBound(keys, lo, hi, x.getKey());
+		boolean found = mid <= hi && keys[mid] == x.getKey() && !x.dead;
+		int next = mid <= hi && keys[mid] == x.getKey() ? mid + 1 : mid;
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		detach(right);
+		left = difference(left, keys, lo, mid - 1);
+		right = difference(right, keys, next, hi);
+		if (!found) {
+			return join(left, x, right);
+		}
+		count--;
+		if (deleteMode == DeleteMode.TOMBSTONE) {
+			x.dead = true;
+			x.value = null;
+			deadCount++;
+			return join(left, x, right);
+		}
+		noteRemoved(x);
+		recycle(x);
+		if (!left.isInnerNode()) {
+			return right;
+		}
+		WAVLNode[] last = new WAVLNode[1];
+		WAVLNode rest = removeLast(left, last);
+		return join(rest, last[0], right);
+	}
+
+	/**
+	 * Removes the node with the maximal key from the detached subtree of x,
+	 * with joins on the way up.
+	 * @Complexity O(log n)
+	 * @param x WAVLNode root of a nonempty detached subtree
+	 * @param last WAVLNode[] of length 1, gets the removed node
+	 * @return the root of the rest of the subtree (detached)
+	 */
+	private WAVLNode removeLast(WAVLNode x, WAVLNode[] last) {
+		WAVLNode left = x.getLeft();
+		WAVLNode right = x.getRight();
+		detach(left);
+		if (!right.isInnerNode()) {
+			last[0] = x;
+			return left;
+		}
+		detach(right);
+		return join(left, x, removeLast(right, last));
+	}
+
+	/**
+	 * Joins two detached subtrees, all of left's keys smaller than k's and all of
+	 * right's keys larger, into one WAVL tree with k as the middle node.
+	 * If the ranks are close, k becomes the root. Otherwise k is attached
+	 * on the spine of the higher tree, next to the first node with a low enough
+	 * rank, and rebalanced like an inserted node (a 0-child, at most).
+	 * @Complexity O(|rank(left) - rank(right)| + 1) amortized
+	 * @param left WAVLNode root of the smaller keys (or OUTER_NODE)
+	 * @param k WAVLNode the middle node
+	 * @param right WAVLNode root of the larger keys (or OUTER_NODE)
+	 * @return the root of the joined (detached) tree
+	 */
+	private WAVLNode join(WAVLNode left, WAVLNode k, WAVLNode right) {
+		if (left.getRank() > right.getRank() + 1) {
+			return joinRight(left, k, right);
+		}
+		if (right.getRank() > left.getRank() + 1) {
+			return joinLeft(left, k, right);
+		}
+		link(left, k, right);
+		k.setParent(null);
+		return k;
+	}
+
+	/**
+	 * join, when left is higher: k and right replace the first node c on the
+	 * right spine of left with rank at most rank(right) + 1.
+	 * @Complexity O(rank(left) - rank(right)) amortized
+	 */
+	private WAVLNode joinRight(WAVLNode left, WAVLNode k, WAVLNode right) {
+		WAVLNode p = null;
+		WAVLNode c = left;
+		while (c.getRank() > right.getRank() + 1) {
+			p = c;
+			c = c.getRight();
+		}
+		link(c, k, right);
+		p.setRight(k);
+		k.setParent(p);
+		return rebalanceJoined(k);
+	}
+
+	/**
+	 * join, when right is higher - mirror image of joinRight.
+	 * @Complexity O(rank(right) - rank(left)) amortized
+	 */
+	private WAVLNode joinLeft(WAVLNode left, WAVLNode k, WAVLNode right) {
+		WAVLNode p = null;
+		WAVLNode c = right;
+		while (c.getRank() > left.getRank() + 1) {
+			p = c;
+			c = c.getLeft();
+		}
+		link(left, k, c);
+		p.setLeft(k);
+		k.setParent(p);
+		return rebalanceJoined(k);
+	}
+
+	/**
+	 * Makes left and right k's children, and sets k's rank and size.
+	 * The rank is one above the higher child, so the rank differences are 1 or 2.
+	 * @Complexity O(1)
+	 */
+	private void link(WAVLNode left, WAVLNode k, WAVLNode right) {
+		k.setLeft(left);
+		k.setRight(right);
+		if (left.isInnerNode()) {
+			left.setParent(k);
+		}
+		if (right.isInnerNode()) {
+			right.setParent(k);
+		}
+		k.setRank(Math.max(left.getRank(), right.getRank()) + 1);
+		updateSize(k);
+	}
+
+	/**
+	 * After k was attached on a spine, fixes the sizes above it, and rebalances
+	 * its parent, which may have k as a 0-child.
+	 * @Complexity O(log n) for the sizes, O(1) amortized rebalancing
+	 * @param k WAVLNode the attached node
+	 * @return the root of the joined (detached) tree
+	 */
+	private WAVLNode rebalanceJoined(WAVLNode k) {
+		for (WAVLNode x = k.getParent(); x != null; x = x.getParent()) {
+			updateSize(x);
+		}
+		insertRebalance(k.getParent());
+		WAVLNode top = k;
+		while (top.getParent() != null) {
+			top = top.getParent();
+		}
+		return top;
+	}
+
+	/**
+	 * Clears the parent of a subtree root, so it can be joined.
+	 * @Complexity O(1)
+	 * @param x WAVLNode a subtree root, or OUTER_NODE
+	 */
+	private void detach(WAVLNode x) {
+		if (x.isInnerNode()) {
+			x.setParent(null);
+		}
+	}
+
+	/**
+	 * Joins two detached subtrees with k in the middle, like insertAll and
+	 * deleteAll do. Only the order of left, k and right matters, not their
+	 * keys, so subclasses that order the nodes in another way (see
+	 * WAVLSequence) can split and join with it.
+	 * @Complexity O(|rank(left) - rank(right)| + 1) amortized
+	 * @param left WAVLNode root of the first nodes (or OUTER_NODE)
+	 * @param k WAVLNode the middle node, not in any tree
+	 * @param right WAVLNode root of the last nodes (or OUTER_NODE)
+	 * @return the root of the joined tree, detached
+	 */
+	protected WAVLNode joinSubtrees(WAVLNode left, WAVLNode k, WAVLNode right) {
+		detach(left);
+		detach(right);
+		return join(left, k, right);
+	}
+
+	/**
+	 * Sets the result of a batch operation, or of joinSubtrees, as the tree's root.
+	 * @Complexity O(1)
+	 * @param x WAVLNode detached root, or OUTER_NODE
+	 */
+	protected void setJoinedRoot(WAVLNode x) {
+		this.root = x;
+		detach(x);
+		this.minNode = null; // found again when needed
+		this.maxNode = null;
+	}
+
+	/**
+	 * @Complexity O(m)
+	 * @param keys int[] the keys of a batch operation
+	 * @throws IllegalArgumentException if the keys aren't strictly ascending
+	 */
+	private static void checkAscending(int[] keys) {
+		for (int j = 1; j < keys.length; j++) {
+			if (keys[j - 1] >= keys[j]) {
+				throw new IllegalArgumentException("keys must be in strictly ascending order");
+			}
+		}
+	}
+
+	/**
+	 * Keeps the extreme nodes of the finger operations up to date after x was
+	 * linked into the tree.
+	 * @Complexity O(1)
+	 * @param x WAVLNode the new node
+	 */
+	private void noteInserted(WAVLNode x) {
+		if (minNode != null && x.getKey() < minNode.getKey()) {
+			minNode = x;
+		}
+		if (maxNode != null && x.getKey() > maxNode.getKey()) {
+			maxNode = x;
+		}
+	}
+
+	/**
+	 * Forgets x as the finger, and moves an extreme node that is x to its
+	 * neighbor, before x is unlinked. The minimum has no left child, so its
+	 * successor is its right child or its parent (and the mirror image for
+	 * the maximum).
+	 * @Complexity O(1)
+	 * @param x WAVLNode the node that is removed, still linked
+	 */
+	private void noteRemoved(WAVLNode x) {
+		if (x == finger) {
+			finger = null;
+		}
+		if (x == minNode) {
+			minNode = successor(x);
+		}
+		if (x == maxNode) {
+			maxNode = predecessor(x);
+		}
+	}
+
+	/**
+	 * Returns the node with the key directly following x.
+	 * This does not deal with call successor on the maximum of the tree,
+	 * because we don't meet this case in any other operation.
+	 *
+	 * Implement by pseudo-code from class
+	 *
+	 * @Complexity O(log n) worst case, where n is the number of nodes in the tree
+	 * @param x WAVLNode A node in the tree
+	 * @return y The WAVLNode with the following key
+	 */
+	private WAVLNode successor(WAVLNode x) {
+		if (x.getRight().getRank() != -1) {
+			return min(x.getRight());
+		} else {
+			WAVLNode y = x.getParent();
+			while (y != null && x == y.getRight()) {
+				x = y;
+				y = x.getParent();
+			}
+			return y;
+		}
+	}
+
+
+	/**
+	 * Mirror image of successor.
+	 * @Complexity O(log n) worst case, where n is # of nodes in the tree.
+	 * @param x WAVLNode
+	 * @return y The WAVLNode with the previous key, or null if x is the minimum
+	 */
+	private WAVLNode predecessor(WAVLNode x) {
+		if (x.getLeft().getRank() != -1) {
+			return max(x.getLeft());
+		} else {
+			WAVLNode y = x.getParent();
+			while (y != null && x == y.getLeft()) {
+				x = y;
+				y = x.getParent();
+			}
+			return y;
+		}
+	}
+
+	/**
+	 * public WAVLNode floorNode(int k)
+	 *
+	 * Returns the node with the largest key <= k, or null if there is none.
+	 * The search goes down to k, and remembers the last node it went right
+	 * from (the largest key below k on the path). If the key found is dead
+	 * (TOMBSTONE mode), the dead nodes are skipped with predecessor.
+	 * The node is the tree's own, so its getKey() and getValue() read the
+	 * result without allocating. It must not be changed.
+	 * @Complexity O(log n), plus the number of dead nodes skipped
+	 * @param k int any key
+	 * @return WAVLNode the floor of k, or null
+	 */
+	public WAVLNode floorNode(int k) {
+		WAVLNode x = root;
+		WAVLNode found = null;
+		while (x.isInnerNode()) {
+			if (k == x.getKey()) {
+				found = x;
+				break;
+			} else if (k < x.getKey()) {
+				x = x.getLeft();
+			} else {
+				found = x;
+				x = x.getRight();
+			}
+		}
+		return skipDeadBackward(found);
+	}
+
+	/**
+	 * public WAVLNode lowerNode(int k)
+	 *
+	 * Returns the node with the largest key < k, or null if there is none.
+	 * Same as floorNode, except that the node of k itself goes left.
+	 * @Complexity O(log n), plus the number of dead nodes skipped
+	 * @param k int any key
+	 * @return WAVLNode the largest node below k, or null
+	 */
+	public WAVLNode lowerNode(int k) {
+		WAVLNode x = root;
+		WAVLNode found = null;
+		while (x.isInnerNode()) {
+			if (x.getKey() < k) {
+				found = x;
+				x = x.getRight();
+			} else {
+				x = x.getLeft();
+			}
+		}
+		return skipDeadBackward(found);
+	}
+
+	/**
+	 * public WAVLNode ceilingNode(int k)
+	 *
+	 * Returns the node with the smallest key >= k, or null if there is none.
+	 * Mirror image of floorNode.
+	 * @Complexity O(log n), plus the number of dead nodes skipped
+	 * @param k int any key
+	 * @return WAVLNode the ceiling of k, or null
+	 */
+	public WAVLNode ceilingNode(int k) {
+		WAVLNode x = root;
+		WAVLNode found = null;
+		while (x.isInnerNode()) {
+			if (k == x.getKey()) {
+				found = x;
+				break;
+			} else if (k > x.getKey()) {
+				x = x.getRight();
+			} else {
+				found = x;
+				x = x.getLeft();
+			}
+		}
+		return skipDeadForward(found);
+	}
+
+	/**
+	 * public WAVLNode higherNode(int k)
+	 *
+	 * Returns the node with the smallest key > k, or null if there is none.
+	 * Mirror image of lowerNode.
+	 * @Complexity O(log n), plus the number of dead nodes skipped
+	 * @param k int any key
+	 * @return WAVLNode the smallest node above k, or null
+	 */
+	public WAVLNode higherNode(int k) {
+		WAVLNode x = root;
+		WAVLNode found = null;
+		while (x.isInnerNode()) {
+			if (x.getKey() > k) {
+				found = x;
+				x = x.getLeft();
+			} else {
+				x = x.getRight();
+			}
+		}
+		return skipDeadForward(found);
+	}
+
+	/**
+	 * public int floorKey(int k, int absent)
+	 *
+	 * @Complexity O(floorNode) = O(log n)
+	 * @param k int any key
+	 * @param absent int what to return if there is no floor
+	 * @return the largest key <= k, or absent if there is none
+	 */
+	public int floorKey(int k, int absent) {
+		WAVLNode x = floorNode(k);
+		return x == null ? absent : x.getKey();
+	}
+
+	/**
+	 * public int lowerKey(int k, int absent)
+	 *
+	 * @Complexity O(lowerNode) = O(log n)
+	 * @param k int any key
+	 * @param absent int what to return if there is no smaller key
+	 * @return the largest key < k, or absent if there is none
+	 */
+	public int lowerKey(int k, int absent) {
+		WAVLNode x = lowerNode(k);
+		return x == null ? absent : x.getKey();
+	}
+
+	/**
+	 * public int ceilingKey(int k, int absent)
+	 *
+	 * @Complexity O(ceilingNode) = O(log n)
+	 * @param k int any key
+	 * @param absent int what to return if there is no ceiling
+	 * @return the smallest key >= k, or absent if there is none
+	 */
+	public int ceilingKey(int k, int absent) {
+		WAVLNode x = ceilingNode(k);
+		return x == null ? absent : x.getKey();
+	}
+
+	/**
+	 * public int higherKey(int k, int absent)
+	 *
+	 * @Complexity O(higherNode) = O(log n)
+	 * @param k int any key
+	 * @param absent int what to return if there is no larger key
+	 * @return the smallest key > k, or absent if there is none
+	 */
+	public int higherKey(int k, int absent) {
+		WAVLNode x = higherNode(k);
+		return x == null ? absent : x.getKey();
+	}
+
+	/**
+	 * public WAVLNode successorNode(WAVLNode x)
+	 *
+	 * Returns the node after x in key order, so a scan can go on from a node
+	 * found by search or by ceilingNode without searching again. For a key k
+	 * that isn't at hand as a node, higherNode(k) is the successor.
+	 * @Complexity O(log n) worst case, O(1) amortized over a scan, plus the
+	 * 				number of dead nodes skipped
+	 * @param x WAVLNode a live node of this tree
+	 * @return WAVLNode the next live node, or null if x is the maximum
+	 */
+	public WAVLNode successorNode(WAVLNode x) {
+		return skipDeadForward(successor(x));
+	}
+
+	/**
+	 * public WAVLNode predecessorNode(WAVLNode x)
+	 *
+	 * Mirror image of successorNode. For a key k, lowerNode(k) is the predecessor.
+	 * @Complexity O(log n) worst case, O(1) amortized over a scan, plus the
+	 * 				number of dead nodes skipped
+	 * @param x WAVLNode a live node of this tree
+	 * @return WAVLNode the previous live node, or null if x is the minimum
+	 */
+	public WAVLNode predecessorNode(WAVLNode x) {
+		return skipDeadBackward(predecessor(x));
+	}
+
+	/**
+	 * Skips dead nodes (TOMBSTONE mode) forward in key order.
+	 * @Complexity O(1) if x is live, O(log n) per dead node skipped
+	 * @param x WAVLNode a node of the tree, or null
+	 * @return x or the first live node after it, or null if there is none
+	 */
+	private WAVLNode skipDeadForward(WAVLNode x) {
+		while (x != null && x.dead) {
+			x = successor(x);
+		}
+		return x;
+	}
+
+	/**
+	 * Mirror image of skipDeadForward.
+	 * @Complexity O(1) if x is live, O(log n) per dead node skipped
+	 * @param x WAVLNode a node of the tree, or null
+	 * @return x or the last live node before it, or null if there is none
+	 */
+	private WAVLNode skipDeadBackward(WAVLNode x) {
+		while (x != null && x.dead) {
+			x = predecessor(x);
+		}
+		return x;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree, or null if
+	 * the tree is empty
+	 *
+	 * We use the private WAVLNode min to find the node with the minimal key
+	 * in the subtree under node, and the return it's value
+	 * Dead nodes (TOMBSTONE mode) are skipped with successor.
+	 * @Complexity O(log n) n the number of nodes in the tree, plus the number
+	 * 				of dead nodes skipped
+	 * @return the value of the node with the minimal key
+	 */
+	public String min() {
+		WAVLNode x = min(root);
+		while (x != null && x.dead) {
+			x = successor(x);
+		}
+		return x == null ? null : x.getValue();
+	}
+
+	/**
+	 * implemented recursively
+	 *
+	 * @Complexity O(log n) where n is the number of nodes in the subtree. The worst
+	 *             case happens when the min is of depth = height.
+	 * @param node the root of the current subtree
+	 * @return minimal node in tree
+	 */
+	private WAVLNode min(WAVLNode node) {
+		if (node == OUTER_NODE || node.getLeft() == OUTER_NODE) {
+			return node;
+		}
+		return min(node.getLeft());
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree, or null if the
+	 * tree is empty
+	 *
+	 * We use the private WAVLNode max to find the node with the maximal key
+	 * in the subtree under node, and the return it's value
+	 * Dead nodes (TOMBSTONE mode) are skipped with predecessor.
+	 * @Complexity O(log n) n the number of nodes in the tree, plus the number
+	 * 				of dead nodes skipped
+	 * @return the value of the node with the maximal key
+	 */
+	public String max() {
+		WAVLNode x = max(root);
+		while (x != null && x.dead) {
+			x = predecessor(x);
+		}
+		return x == null ? null : x.getValue();
+	}
+
+	/**
+	 * Implemented recursively
+	 *
+	 * @Complexity O(log n) where n is the number of nodes in the subtree. The worst
+	 *             case happens when the max is of depth = height.
+	 * @param node the root of the current subtree
+	 * @return maximal node in the tree
+	 */
+	private WAVLNode max(WAVLNode node) {
+		if (node == OUTER_NODE || node.getRight() == OUTER_NODE) {
+			return node;
+		}
+		return max(node.getRight());
+	}
+
+	/**
+	 * public WAVLNode peekFirst()
+	 *
+	 * Returns the node with the smallest key, for using the tree as a
+	 * priority queue. The minimum is cached, and insert and delete keep the
+	 * cache current (noteInserted, noteRemoved), so it is found by a search
+	 * only after the tree was rebuilt or changed by a batch operation.
+	 * The node is the tree's own, and must not be changed.
+	 * @Complexity O(1) with the cache, O(log n) to find it again, plus the
+	 * 				dead nodes (TOMBSTONE mode) skipped
+	 * @return WAVLNode with the minimal key, or null if the tree is empty
+	 */
+	public WAVLNode peekFirst() {
+		if (empty()) {
+			return null;
+		}
+		if (minNode == null) {
+			minNode = min(root);
+		}
+		return skipDeadForward(minNode);
+	}
+
+	/**
+	 * public WAVLNode peekLast()
+	 *
+	 * Mirror image of peekFirst.
+	 * @Complexity O(1) with the cache, O(log n) to find it again, plus the
+	 * 				dead nodes (TOMBSTONE mode) skipped
+	 * @return WAVLNode with the maximal key, or null if the tree is empty
+	 */
+	public WAVLNode peekLast() {
+		if (empty()) {
+			return null;
+		}
+		if (maxNode == null) {
+			maxNode = max(root);
+		}
+		return skipDeadBackward(maxNode);
+	}
+
+	/**
+	 * public WAVLNode pollFirst()
+	 *
+	 * Removes the item with the smallest key, without searching for it:
+	 * the cached minimum is unlinked, and its successor becomes the cached
+	 * minimum. The node is handed to the caller (not to the pool), so its key
+	 * and info can be read after it left the tree.
+	 * In TOMBSTONE mode the item is unlinked too, and so are the dead nodes
+	 * before it, so they aren't skipped again by the next poll.
+	 * @Complexity O(1) amortized rebalancing, plus O(log n) to fix the sizes
+	 * 				if the tree maintains them
+	 * @return WAVLNode the removed node, or null if the tree is empty
+	 */
+	public WAVLNode pollFirst() {
+		if (peekFirst() == null) {
+			return null;
+		}
+		while (minNode.dead) {
+			purge(minNode);
+		}
+		return poll(minNode);
+	}
+
+	/**
+	 * public WAVLNode pollLast()
+	 *
+	 * Mirror image of pollFirst.
+	 * @Complexity O(1) amortized rebalancing, plus O(log n) to fix the sizes
+	 * 				if the tree maintains them
+	 * @return WAVLNode the removed node, or null if the tree is empty
+	 */
+	public WAVLNode pollLast() {
+		if (peekLast() == null) {
+			return null;
+		}
+		while (maxNode.dead) {
+			purge(maxNode);
+		}
+		return poll(maxNode);
+	}
+
+	/**
+	 * Unlinks a dead node (TOMBSTONE mode) and recycles it.
+	 * @Complexity O(removeNode)
+	 * @param x WAVLNode a dead node of the tree
+	 */
+	private void purge(WAVLNode x) {
+		removeNode(x);
+		deadCount--;
+		recycle(x);
+	}
+
+	/**
+	 * Unlinks a live extreme node for pollFirst or pollLast.
+	 * @Complexity O(removeNode)
+	 * @param x WAVLNode the live minimum or maximum
+	 * @return x, with no links to the tree
+	 */
+	private WAVLNode poll(WAVLNode x) {
+		count--;
+		removeNode(x);
+		if (deleteMode == DeleteMode.TOMBSTONE && deadCount > count) {
+			rebuild();
+		}
+		x.reset(x.getKey(), x.getValue());
+		return x;
 	}
 
 	/**
@@ -803,17 +2737,20 @@ public class WAVLTree {
 	 * 		successor - called n times, with an amortized cost of O(1) per call
 	 * 			total cost O(n) amortized
 	 * 		total cost O(n)
+	 * Dead nodes (TOMBSTONE mode) are skipped, they are at most half the nodes.
 	 * @return arr int[] sorted array of the keys of tree nodes
 	 */
 	public int[] keysToArray() {
-		int[] arr = new int[root.size];
+		int[] arr = new int[size()];
 		if (!this.empty()) {
 			WAVLNode current = this.min(root);
 			int i = 0;
-			while (i < root.size) {
-				arr[i] = current.getKey();
+			while (i < arr.length) {
+				if (!current.dead) {
+					arr[i] = current.getKey();
+					i++;
+				}
 				current = successor(current);
-				i++;
 			}
 		}
 		return arr;
@@ -833,19 +2770,34 @@ public class WAVLTree {
 	 * @return arr String[] sorted array of the keys of tree nodes
 	 */
 	public String[] infoToArray() {
-		String[] arr = new String[root.size];
+		String[] arr = new String[size()];
 		if (!this.empty()) {
 			WAVLNode current = this.min(root);
 			int i = 0;
-			while (i < root.size) {
-				arr[i] = current.getValue();
+			while (i < arr.length) {
+				if (!current.dead) {
+					arr[i] = current.getValue();
+					i++;
+				}
 				current = successor(current);
-				i++;
 			}
 		}
 		return arr;
 	}
 
+	/**
+	 * public FrozenWAVLTree freeze()
+	 *
+	 * Returns an immutable snapshot of the tree's live items, laid out for
+	 * fast searches (see FrozenWAVLTree). Later changes to the tree don't
+	 * affect the snapshot.
+	 * @Complexity O(n)
+	 * @return FrozenWAVLTree with the same keys and info
+	 */
+	public FrozenWAVLTree freeze() {
+		return new FrozenWAVLTree(keysToArray(), infoToArray());
+	}
+
 	/**
 	 * public int size()
 	 *
@@ -853,11 +2805,13 @@ public class WAVLTree {
 	 *
 	 * @Complexity O(1) given that the size of each node is updated at every insert,
 	 *             delete, and rebalance
-	 * @return the size of the root node.
+	 * @return the size of the root node, or the node counter if sizes aren't maintained.
 	 */
 	public int size() {
 		if (empty()) {
 			return 0;
+		} else if (!maintainSizes) {
+			return count;
 		} else {
 			return getRoot().size;
 		}
@@ -879,6 +2833,16 @@ public class WAVLTree {
 		}
 	}
 
+	/**
+	 * Like getRoot, but an empty tree gives OUTER_NODE instead of null, so
+	 * subclasses can walk down from it without a special case.
+	 * @Complexity O(1)
+	 * @return the root of the tree, or OUTER_NODE if the tree is empty
+	 */
+	protected WAVLNode top() {
+		return empty() ? OUTER_NODE : root;
+	}
+
 	/**
 	 * public int select(int i)
 	 *
@@ -892,8 +2856,12 @@ public class WAVLTree {
 	 * @Complexity O(selectNode) = O(log n), where n is # of nodes in the tree.
 	 * @param i int index to search for
 	 * @return the value of the i'th smallest node
+	 * @throws UnsupportedOperationException if the tree doesn't maintain sizes
 	 */
 	public String select(int i) {
+		if (!maintainSizes) {
+			throw new UnsupportedOperationException("select requires a tree that maintains subtree sizes");
+		}
 		if (empty() || i > size()) {
 			return null;
 		} else {
@@ -911,20 +2879,22 @@ public class WAVLTree {
 	 * 		subtree of x. We then need to account for the x.left.size + 1
 	 * 		(all the nodes in order until x.right), and search for the
 	 * 		i - x.left.size + 1 index in the right subtree.
+	 * A dead node (TOMBSTONE mode) is skipped, as if it had no +1 of its own.
 	 * @Complexity O(log n) worst case where n is # of nodes in the tree.
 	 * 				Because the longest route from root to leaf is log n.
 	 * @param x WAVLNode the root of the subtree to find the node in
-	 * @param i int the index to search for.
+	 * @param i int the index to search for (0-based).
 	 * @return The node with the i'th smallest value
 	 */
-	private WAVLNode selectNode(WAVLNode x, int i) {
+	protected WAVLNode selectNode(WAVLNode x, int i) {
 		int r = x.getLeft().getSubtreeSize();
-		if (i == r) {
-			return x;
-		} else if (i < r) {
+		int self = x.dead ? 0 : 1; // dead nodes aren't counted in the sizes
+		if (i < r) {
 			return selectNode(x.getLeft(), i);
+		} else if (i - r < self) {
+			return x;
 		} else {
-			return selectNode(x.getRight(), i - r - 1);
+			return selectNode(x.getRight(), i - r - self);
 		}
 	}
 
@@ -935,8 +2905,10 @@ public class WAVLTree {
 	 * We decided to have each node with pointers for:
 	 * key, value, parent node, right child, left child, rank and size
 	 * In addition, we created static properties for OUTER_NODEs
+	 * The class is static, so a node doesn't hold a reference to its tree, and
+	 * nodes can move between the trees of a WAVLForest.
 	 */
-	public class WAVLNode {
+	public static class WAVLNode {
 		public static final int OUTER_NODE_RANK = -1;
 		public static final String OUTER_NODE_VALUE = ""; // not used
 		public static final int OUTER_NODE_KEY = -1;
@@ -947,6 +2919,7 @@ public class WAVLTree {
 		private WAVLNode left;
 		private int rank;
 		private int size; // the size field needs to be updated after inserts or rebalances.
+		private boolean dead; // deleted in TOMBSTONE mode, not counted in sizes
 
 		/**
 		 * basic constructor for WAVLNode
@@ -1004,6 +2977,17 @@ public class WAVLTree {
 			return key;
 		}
 
+		/**
+		 * Changes the key of a node that is in a tree. Only for subclasses
+		 * whose new key keeps the node between its predecessor and successor
+		 * (see BlockWAVLTree, which moves a block's separator).
+		 * @Complexity O(1)
+		 * @param key int the new key
+		 */
+		protected void setKey(int key) {
+			this.key = key;
+		}
+
 		/**
 		 * getter for value
 		 * @Complexity O(1)
@@ -1013,6 +2997,16 @@ public class WAVLTree {
 			return value;
 		}
 
+		/**
+		 * Setter for value. Subclasses that summarize the info override it to
+		 * update the sizes above the node as well (see AugmentedWAVLTree).
+		 * @Complexity O(1)
+		 * @param value String the new info
+		 */
+		public void setValue(String value) {
+			this.value = value;
+		}
+
 		/**
 		 * getter for left child
 		 * @Complexity O(1)
@@ -1079,7 +3073,9 @@ public class WAVLTree {
 		 * @param parent WAVLNode to set as parent
 		 */
 		public void setParent(WAVLNode parent) {
-			this.parent = parent;
+			if (this.getRank() != OUTER_NODE_RANK) { // OUTER_NODE is shared by all trees
+				this.parent = parent;
+			}
 		}
 
 		/**
@@ -1162,6 +3158,7 @@ public class WAVLTree {
 		 * new node inserted has static OUTER_NODEs as children, and
 		 * a size of 0.
 		 * In addition, if the tree is set, all sizes should be up-to-date.
+		 * Dead nodes (TOMBSTONE mode) are not counted.
 		 *
 		 * @Complexity O(1)
 		 * @return the size of the subtree that has this as its root, including this.
@@ -1178,7 +3175,29 @@ public class WAVLTree {
 			if (getRight() != null) {
 				rsize = getRight().size;
 			}
-			return rsize + lsize + 1;
+			return rsize + lsize + selfSize();
+		}
+
+		/**
+		 * How many items this node holds itself, for the subtree sizes.
+		 * Subclasses of WAVLNode that hold more items override it.
+		 * @Complexity O(1)
+		 * @return 1, or 0 for a dead node (TOMBSTONE mode)
+		 */
+		protected int selfSize() {
+			return dead ? 0 : 1;
+		}
+
+		/**
+		 * Whether this node adds the same to its ancestors' subtree fields as
+		 * other does, so one can take the other's place without updating them.
+		 * Subclasses that keep more than sizes in the subtree fields override it.
+		 * @Complexity O(1)
+		 * @param other WAVLNode another node
+		 * @return true if both nodes hold the same number of items
+		 */
+		protected boolean contributesLike(WAVLNode other) {
+			return selfSize() == other.selfSize();
 		}
 		/**
 		 * updates the Node's subtree size in-place.
@@ -1191,6 +3210,24 @@ public class WAVLTree {
 		public void updateSubtreeSize() {
 			size = getSubtreeSize();
 		}
+
+		/**
+		 * Clears the node for reuse by a NodePool, as if it was just constructed
+		 * with the given key and info.
+		 * @Complexity O(1)
+		 * @param key int the new key
+		 * @param value String the new info
+		 */
+		void reset(int key, String value) {
+			this.key = key;
+			this.value = value;
+			this.parent = null;
+			this.left = OUTER_NODE;
+			this.right = OUTER_NODE;
+			this.rank = 0;
+			this.size = 1;
+			this.dead = false;
+		}
 	}
 
 }
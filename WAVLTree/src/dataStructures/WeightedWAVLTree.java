@@ -0,0 +1,263 @@
+package dataStructures;
+
+import java.util.Random;
+
+/**
+ *
+ * WeightedWAVLTree
+ *
+ * A WAVLTree whose items have nonnegative weights, for random sampling from
+ * a population that changes. Every node keeps the sum of the weights in its
+ * subtree, recomputed with the subtree size in updateSubtreeSize, so insert,
+ * delete and the rotations keep it current in the same places they keep the
+ * sizes. sampleWeighted then goes down the tree by the sums, instead of
+ * searching a prefix-sum array that has to be rebuilt on every change.
+ *
+ * The sums are recomputed from the children, not added to and subtracted
+ * from, so rounding errors don't pile up over many updates.
+ * Deletions always rebalance (DeleteMode.REBALANCE).
+ *
+ */
+public class WeightedWAVLTree extends WAVLTree {
+
+	/**
+	 * Constructs an empty tree.
+	 */
+	public WeightedWAVLTree() {
+		super(true, DeleteMode.REBALANCE, null);
+	}
+
+	/**
+	 * A node with a weight, and the sum of the weights of its subtree.
+	 */
+	private static class WeightedNode extends WAVLNode {
+		private double weight;
+		private double weightSum;
+
+		/**
+		 * @param k int key of the node
+		 * @param i String info of the node
+		 * @param weight double weight of the node
+		 */
+		WeightedNode(int k, String i, double weight) {
+			super(k, i, null, OUTER_NODE, OUTER_NODE);
+			this.weight = weight;
+			this.weightSum = weight;
+		}
+
+		@Override
+		public void updateSubtreeSize() {
+			super.updateSubtreeSize();
+			weightSum = weightSumOf(getLeft()) + weight + weightSumOf(getRight());
+		}
+
+		@Override
+		protected boolean contributesLike(WAVLNode other) {
+			return false; // the weights of the two nodes may differ
+		}
+	}
+
+	/**
+	 * @Complexity O(1)
+	 * @param x WAVLNode a node of the tree, or OUTER_NODE
+	 * @return the sum of the weights in the subtree of x
+	 */
+	private static double weightSumOf(WAVLNode x) {
+		return x.isInnerNode() ? ((WeightedNode) x).weightSum : 0.0;
+	}
+
+	/**
+	 * Checks a weight.
+	 * @param weight double the weight
+	 * @throws IllegalArgumentException if it is negative, infinite or NaN
+	 */
+	private static void checkWeight(double weight) {
+		if (!(weight >= 0 && weight < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("bad weight " + weight);
+		}
+	}
+
+	/**
+	 * Items inserted without a weight get weight 1.
+	 */
+	@Override
+	protected WAVLNode newNode(int k, String i) {
+		return new WeightedNode(k, i, 1.0);
+	}
+
+	/**
+	 * public int insert(int k, String i, double weight)
+	 *
+	 * Inserts an item with a weight. If k is already in the tree, nothing changes.
+	 * @Complexity O(log n)
+	 * @param k int key of the item
+	 * @param i String info of the item
+	 * @param weight double weight of the item, finite and nonnegative
+	 * @return the number of rebalance operations, or -1 if k is already in the tree
+	 * @throws IllegalArgumentException if the weight is bad
+	 */
+	public int insert(int k, String i, double weight) {
+		checkWeight(weight);
+		return insertNode(new WeightedNode(k, i, weight));
+	}
+
+	/**
+	 * public double getWeight(int k)
+	 *
+	 * @Complexity O(log n)
+	 * @param k int key of an item
+	 * @return the weight of the item, or -1 if k isn't in the tree
+	 */
+	public double getWeight(int k) {
+		WAVLNode x = treeSearch(getRoot(), k);
+		return x.isInnerNode() ? ((WeightedNode) x).weight : -1;
+	}
+
+	/**
+	 * public boolean setWeight(int k, double weight)
+	 *
+	 * Changes the weight of an item, and the sums above it.
+	 * @Complexity O(log n)
+	 * @param k int key of the item
+	 * @param weight double the new weight, finite and nonnegative
+	 * @return true if k is in the tree, false if nothing changed
+	 * @throws IllegalArgumentException if the weight is bad
+	 */
+	public boolean setWeight(int k, double weight) {
+		checkWeight(weight);
+		WAVLNode x = treeSearch(getRoot(), k);
+		if (!x.isInnerNode()) {
+			return false;
+		}
+		((WeightedNode) x).weight = weight;
+		updateSizeUp(x);
+		return true;
+	}
+
+	/**
+	 * public double totalWeight()
+	 *
+	 * @Complexity O(1)
+	 * @return the sum of the weights of all the items, 0 if the tree is empty
+	 */
+	public double totalWeight() {
+		return empty() ? 0.0 : weightSumOf(getRoot());
+	}
+
+	/**
+	 * public int sampleWeighted(Random random)
+	 *
+	 * Returns the key of a random item, picked with probability proportional
+	 * to its weight. A point is drawn uniformly in [0, totalWeight()), and the
+	 * search goes down to the item whose part of the sum holds it: left if
+	 * the point is in the left subtree's sum, else the point is moved past the
+	 * left sum and the node's weight, and the search goes right.
+	 * If rounding carries the point past the last positive weight, the item
+	 * found last is returned, so an item of weight 0 is never picked.
+	 * @Complexity O(log n)
+	 * @param random Random the source of randomness
+	 * @return the key of the sampled item
+	 * @throws IllegalStateException if the tree is empty or all the weights are 0
+	 */
+	public int sampleWeighted(Random random) {
+		double total = totalWeight();
+		if (!(total > 0)) {
+			throw new IllegalStateException("no item with a positive weight");
+		}
+		return sampleNode(random.nextDouble() * total).getKey();
+	}
+
+	/**
+	 * Finds the item whose part of the weight sum holds the point r.
+	 * @Complexity O(log n)
+	 * @param r double a point in [0, totalWeight()), totalWeight() > 0
+	 * @return the node of the item
+	 */
+	private WAVLNode sampleNode(double r) {
+		WeightedNode x = (WeightedNode) getRoot();
+		while (true) {
+			double left = weightSumOf(x.getLeft());
+			if (r < left) {
+				x = (WeightedNode) x.getLeft();
+				continue;
+			}
+			r -= left;
+			if (r < x.weight) {
+				return x;
+			}
+			r -= x.weight;
+			if (weightSumOf(x.getRight()) > 0) {
+				x = (WeightedNode) x.getRight();
+			} else if (x.weight > 0) {
+				return x; // rounding passed the end of the sum
+			} else {
+				r = Math.nextDown(left); // the last positive weight is on the left
+				x = (WeightedNode) x.getLeft();
+			}
+		}
+	}
+
+	/**
+	 * public int sampleUniform(Random random)
+	 *
+	 * Returns the key of a random item, each with the same probability,
+	 * whatever the weights. A uniform index is drawn and found with selectNode,
+	 * as in select.
+	 * @Complexity O(log n)
+	 * @param random Random the source of randomness
+	 * @return the key of the sampled item
+	 * @throws IllegalStateException if the tree is empty
+	 */
+	public int sampleUniform(Random random) {
+		if (empty()) {
+			throw new IllegalStateException("no item to sample");
+		}
+		return selectNode(getRoot(), random.nextInt(size())).getKey();
+	}
+
+	/**
+	 * public int[] sampleWithoutReplacement(int k, Random random)
+	 *
+	 * Returns the keys of k different random items. Each draw is weighted
+	 * like sampleWeighted among the items not picked yet: a picked item's
+	 * weight is set to 0 until the k draws are done, and then set back.
+	 * Only the O(log n) sums above each picked item change, so the tree is
+	 * left as it was.
+	 * @Complexity O(k log n)
+	 * @param k int the number of items, 0 to the number of items with a
+	 * 				positive weight
+	 * @param random Random the source of randomness
+	 * @return int[] the keys of the items, in the order they were drawn
+	 * @throws IllegalArgumentException if k is negative, or fewer than k items
+	 * 				have a positive weight
+	 */
+	public int[] sampleWithoutReplacement(int k, Random random) {
+		if (k < 0 || k > size()) {
+			throw new IllegalArgumentException("can't sample " + k + " of " + size() + " items");
+		}
+		int[] keys = new int[k];
+		WeightedNode[] picked = new WeightedNode[k];
+		double[] weights = new double[k];
+		int m = 0;
+		try {
+			for (; m < k; m++) {
+				double total = totalWeight();
+				if (!(total > 0)) {
+					throw new IllegalArgumentException("fewer than " + k + " items with a positive weight");
+				}
+				WeightedNode x = (WeightedNode) sampleNode(random.nextDouble() * total);
+				keys[m] = x.getKey();
+				picked[m] = x;
+				weights[m] = x.weight;
+				x.weight = 0;
+				updateSizeUp(x);
+			}
+		} finally {
+			for (int j = m - 1; j >= 0; j--) {
+				picked[j].weight = weights[j];
+				updateSizeUp(picked[j]);
+			}
+		}
+		return keys;
+	}
+}